@@ -0,0 +1,83 @@
+package org.apache.lucene.analysis.ko.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.CompoundNounAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting compound nouns which are not in the compound dictionary, by syllable length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompoundNounBenchmark {
+
+  /**
+   * the syllable length of the nouns, "6+" for six and more.
+   */
+  @Param({"3", "4", "5", "6+"})
+  public String length;
+
+  private CompoundNounAnalyzer analyzer;
+
+  private String[] nouns;
+
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    boolean orMore = length.endsWith("+");
+    int len = Integer.parseInt(orMore ? length.substring(0, length.length()-1) : length);
+
+    List<String> list = new ArrayList<String>();
+    for(String noun : Corpus.lines(Corpus.COMPOUNDS)) {
+      if(noun.length()==len||(orMore&&noun.length()>len)) list.add(noun);
+    }
+    if(list.isEmpty()) throw new IllegalStateException("no compound noun of length "+length);
+    nouns = list.toArray(new String[list.size()]);
+
+    analyzer = new CompoundNounAnalyzer();
+    analyzer.setExactMach(false);
+    for(String noun : nouns) analyzer.analyzeCompoundNoun(noun);
+  }
+
+  @Benchmark
+  public Object split() throws Exception {
+    String noun = nouns[next];
+    if(++next==nouns.length) next = 0;
+    return analyzer.analyzeCompoundNoun(noun);
+  }
+}
@@ -0,0 +1,88 @@
+package org.apache.lucene.analysis.ko.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.utils.FileUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sample texts bundled with the benchmarks.
+ */
+final class Corpus {
+
+  /**
+   * sentences with spaces
+   */
+  static final String SENTENCES = "sentences.txt";
+
+  /**
+   * sentences without spaces
+   */
+  static final String UNSPACED = "unspaced.txt";
+
+  /**
+   * compound nouns which are not in the compound dictionary
+   */
+  static final String COMPOUNDS = "compounds.txt";
+
+  private Corpus() {
+  }
+
+  /**
+   * @return the non empty lines of the resource, '!' comments are skipped
+   */
+  static List<String> lines(String name) throws IOException {
+    InputStream in = Corpus.class.getResourceAsStream(name);
+    if(in==null) throw new IOException("missing resource : "+name);
+
+    List<String> result = new ArrayList<String>();
+    try {
+      for(String line : FileUtil.readLines(in, "UTF-8")) {
+        line = line.trim();
+        if(line.length()>0) result.add(line);
+      }
+    } finally {
+      FileUtil.closeQuietly(in);
+    }
+    return result;
+  }
+
+  /**
+   * @return the eojeols of the sentences, the last one of a sentence keeps its period
+   */
+  static List<String> eojeols() throws IOException {
+    List<String> result = new ArrayList<String>();
+    for(String sentence : lines(SENTENCES)) {
+      for(String eojeol : sentence.split("\\s+")) result.add(eojeol);
+    }
+    return result;
+  }
+
+  /**
+   * @return all the sentences joined as one document
+   */
+  static String document() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for(String sentence : lines(SENTENCES)) sb.append(sentence).append('\n');
+    return sb.toString();
+  }
+}
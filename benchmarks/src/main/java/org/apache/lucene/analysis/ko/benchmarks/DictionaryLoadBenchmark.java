@@ -0,0 +1,75 @@
+package org.apache.lucene.analysis.ko.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.utils.DictionaryUtil;
+import org.apache.lucene.analysis.ko.utils.KoreanEnv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the dictionaries configured in korean.properties, from the text files or
+ * from the compiled image when <code>dictionary.bin</code> is set.
+ * Every measurement is a single load in a fresh fork, so the JIT is cold as well.
+ * <p>
+ * loadDictionary loads the resources of {@link DictionaryUtil} one after another, warmUp loads
+ * all the resources, including the syllable, hanja and tagger data, on one thread per processor.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class DictionaryLoadBenchmark {
+
+  private static final String[] DICTIONARIES = {
+    KoreanEnv.FILE_DICTIONARY, KoreanEnv.FILE_JOSA, KoreanEnv.FILE_EOMI, KoreanEnv.FILE_PREFIX,
+    KoreanEnv.FILE_SUFFIX, KoreanEnv.FILE_UNCOMPOUNDS, KoreanEnv.FILE_ABBREV, KoreanEnv.FILE_CJ};
+
+  private static final Executor CALLER = new Executor() {
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  @Benchmark
+  public Object loadDictionary() throws Exception {
+    DictionaryUtil.loadDictionary();
+    return DictionaryUtil.warmUp(CALLER, DICTIONARIES);
+  }
+
+  @Benchmark
+  public Object warmUp() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    try {
+      return DictionaryUtil.warmUp(executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
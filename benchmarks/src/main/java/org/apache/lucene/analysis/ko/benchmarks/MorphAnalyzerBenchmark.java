@@ -0,0 +1,83 @@
+package org.apache.lucene.analysis.ko.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.AnalyzedToken;
+import org.apache.lucene.analysis.ko.morph.AnalyzedTokenHandler;
+import org.apache.lucene.analysis.ko.morph.MorphAnalyzer;
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Morphological analysis of the eojeols of the sample corpus, one eojeol per operation,
+ * and of the whole corpus as one document through {@link MorphAnalyzer#analyzeText}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MorphAnalyzerBenchmark {
+
+  private MorphAnalyzer analyzer;
+
+  private String[] eojeols;
+
+  private String document;
+
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<String> list = Corpus.eojeols();
+    eojeols = list.toArray(new String[list.size()]);
+    document = Corpus.document();
+    analyzer = new MorphAnalyzer();
+    for(String eojeol : eojeols) analyzer.analyze(eojeol);
+  }
+
+  @Benchmark
+  public Object analyzeEojeol() throws Exception {
+    String eojeol = eojeols[next];
+    if(++next==eojeols.length) next = 0;
+    return analyzer.analyze(eojeol);
+  }
+
+  @Benchmark
+  public void analyzeDocument(final Blackhole bh) throws Exception {
+    analyzer.analyzeText(document, new AnalyzedTokenHandler() {
+      public void token(AnalyzedToken token) throws MorphException {
+        bh.consume(token.getOutputs());
+      }
+    });
+  }
+}
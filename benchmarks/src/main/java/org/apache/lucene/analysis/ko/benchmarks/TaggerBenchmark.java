@@ -0,0 +1,133 @@
+package org.apache.lucene.analysis.ko.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
+import org.apache.lucene.analysis.ko.morph.MorphAnalyzer;
+import org.apache.lucene.analysis.ko.tagging.Tagger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing the best analysis of an eojeol with its right neighbour, of all the eojeols
+ * of a sentence, and the raw lookups of the tagger dictionary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaggerBenchmark {
+
+  private Tagger tagger;
+
+  private String[] eojeols;
+
+  private List<List<AnalysisOutput>> morphs;
+
+  private String[] prefixes;
+
+  private List<List<List<AnalysisOutput>>> sentences;
+
+  private int next;
+
+  private int nextPrefix;
+
+  private int nextSentence;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<String> list = Corpus.eojeols();
+    eojeols = list.toArray(new String[list.size()]);
+
+    MorphAnalyzer analyzer = new MorphAnalyzer();
+    morphs = new ArrayList<List<AnalysisOutput>>(eojeols.length);
+    List<String> keys = new ArrayList<String>();
+    for(String eojeol : eojeols) {
+      List<AnalysisOutput> outputs = analyzer.analyze(eojeol);
+      morphs.add(outputs);
+      keys.add("R"+eojeol+"^W/");
+      if(outputs.size()>0) keys.add("F"+outputs.get(0).getStem()+"^S");
+    }
+    prefixes = keys.toArray(new String[keys.size()]);
+
+    sentences = new ArrayList<List<List<AnalysisOutput>>>();
+    for(String sentence : Corpus.lines(Corpus.SENTENCES)) {
+      List<List<AnalysisOutput>> eojeolMorphs = new ArrayList<List<AnalysisOutput>>();
+      for(String eojeol : sentence.split("\\s+")) eojeolMorphs.add(analyzer.analyze(eojeol));
+      sentences.add(eojeolMorphs);
+    }
+
+    tagger = new Tagger();
+    Tagger.getGR("");
+  }
+
+  /**
+   * the legacy method removes the rejected candidates from the lists it is given, so each
+   * invocation gets copies of the analyses. the copies are included in the score,
+   * {@link #taggingInput()} measures them alone.
+   */
+  @Benchmark
+  public Object tagging() throws Exception {
+    int i = next;
+    if(++next==eojeols.length-1) next = 0;
+    return tagger.tagging(eojeols[i], eojeols[i+1],
+        new ArrayList<AnalysisOutput>(morphs.get(i)), new ArrayList<AnalysisOutput>(morphs.get(i+1)));
+  }
+
+  /**
+   * the copies of the analyses made by {@link #tagging()}.
+   */
+  @Benchmark
+  public void taggingInput(Blackhole bh) {
+    int i = next;
+    if(++next==eojeols.length-1) next = 0;
+    bh.consume(new ArrayList<AnalysisOutput>(morphs.get(i)));
+    bh.consume(new ArrayList<AnalysisOutput>(morphs.get(i+1)));
+  }
+
+  @Benchmark
+  public Object tagSentence() throws Exception {
+    List<List<AnalysisOutput>> sentence = sentences.get(nextSentence);
+    if(++nextSentence==sentences.size()) nextSentence = 0;
+    return tagger.tag(sentence);
+  }
+
+  @Benchmark
+  public void lookup(Blackhole bh) throws Exception {
+    String prefix = prefixes[nextPrefix];
+    if(++nextPrefix==prefixes.length) nextPrefix = 0;
+    Iterator<String[]> iter = Tagger.getGR(prefix);
+    while(iter.hasNext()) bh.consume(iter.next());
+  }
+}
@@ -0,0 +1,206 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of analysis results, used by {@link MorphAnalyzer} when a cache size is set.
+ * <p>
+ * The eviction policy is a segmented LRU: a new result enters the probation segment and moves
+ * to the protected segment when it is hit again. The protected segment holds 80% of the capacity
+ * and its least recently used results fall back to probation, so words seen only once can not
+ * push out the frequent ones.
+ * <p>
+ * The results are copied on the way in and on the way out, so callers may change the returned
+ * outputs freely. The cache must be cleared after the dictionary is changed, {@link MorphAnalyzer}
+ * does it through {@link #checkVersion(long)}.
+ */
+public class AnalysisCache {
+
+  private final int capacity;
+
+  private final int protectedCapacity;
+
+  private final LinkedHashMap<Key, List<AnalysisOutput>> probation;
+
+  private final LinkedHashMap<Key, List<AnalysisOutput>> protect;
+
+  private long hitCount;
+
+  private long missCount;
+
+  /**
+   * the dictionary version of the cached results
+   */
+  private long version;
+
+  /**
+   * @param capacity  the maximum number of cached results
+   */
+  public AnalysisCache(int capacity) {
+    if(capacity<1) throw new IllegalArgumentException("capacity must be positive : "+capacity);
+    this.capacity = capacity;
+    this.protectedCapacity = capacity*4/5;
+    this.probation = new LinkedHashMap<Key, List<AnalysisOutput>>(16, 0.75f, true);
+    this.protect = new LinkedHashMap<Key, List<AnalysisOutput>>(16, 0.75f, true);
+  }
+
+  /**
+   * @return a copy of the cached result, or null if the result is not cached
+   */
+  public synchronized List<AnalysisOutput> get(String input, int pos, boolean exactCompound, boolean divisibleOne) {
+    Key key = new Key(input, pos, exactCompound, divisibleOne);
+
+    List<AnalysisOutput> result = protect.get(key);
+    if(result==null) {
+      result = probation.remove(key);
+      if(result!=null) promote(key, result);
+    }
+
+    if(result==null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return copy(result);
+  }
+
+  /**
+   * store a copy of the result.
+   */
+  public synchronized void put(String input, int pos, boolean exactCompound, boolean divisibleOne, List<AnalysisOutput> result) {
+    Key key = new Key(input, pos, exactCompound, divisibleOne);
+    if(protect.containsKey(key)) {
+      protect.put(key, copy(result));
+      return;
+    }
+
+    probation.put(key, copy(result));
+    if(probation.size()+protect.size()>capacity) removeEldest(probation);
+  }
+
+  /**
+   * clear the cache if the results were made with another version of the dictionary.
+   * @param version  the current version, see {@link org.apache.lucene.analysis.ko.utils.DictionaryUtil#getVersion()}
+   */
+  public synchronized void checkVersion(long version) {
+    if(this.version==version) return;
+    clear();
+    this.version = version;
+  }
+
+  /**
+   * store a copy of the result made with the given version of the dictionary.
+   * the result is dropped if the cache has moved to another version meanwhile.
+   */
+  public synchronized void put(long version, String input, int pos, boolean exactCompound, boolean divisibleOne, List<AnalysisOutput> result) {
+    if(this.version!=version) return;
+    put(input, pos, exactCompound, divisibleOne, result);
+  }
+
+  private void promote(Key key, List<AnalysisOutput> result) {
+    protect.put(key, result);
+    if(protect.size()<=protectedCapacity) return;
+
+    Iterator<Map.Entry<Key, List<AnalysisOutput>>> iter = protect.entrySet().iterator();
+    Map.Entry<Key, List<AnalysisOutput>> eldest = iter.next();
+    iter.remove();
+    probation.put(eldest.getKey(), eldest.getValue());
+  }
+
+  private static void removeEldest(LinkedHashMap<Key, List<AnalysisOutput>> map) {
+    Iterator<Key> iter = map.keySet().iterator();
+    if(iter.hasNext()) {
+      iter.next();
+      iter.remove();
+    }
+  }
+
+  private static List<AnalysisOutput> copy(List<AnalysisOutput> list) {
+    List<AnalysisOutput> result = new ArrayList<AnalysisOutput>(list.size());
+    for(AnalysisOutput o : list) result.add(o.copy());
+    return result;
+  }
+
+  public synchronized void clear() {
+    probation.clear();
+    protect.clear();
+  }
+
+  /**
+   * @return the number of cached results
+   */
+  public synchronized int size() {
+    return probation.size()+protect.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  private static final class Key {
+
+    private final String input;
+
+    private final int pos;
+
+    private final boolean exactCompound;
+
+    private final boolean divisibleOne;
+
+    private final int hash;
+
+    Key(String input, int pos, boolean exactCompound, boolean divisibleOne) {
+      this.input = input;
+      this.pos = pos;
+      this.exactCompound = exactCompound;
+      this.divisibleOne = divisibleOne;
+
+      int h = input.hashCode();
+      h = 31*h+pos;
+      h = 31*h+(exactCompound ? 1 : 0);
+      h = 31*h+(divisibleOne ? 1 : 0);
+      this.hash = h;
+    }
+
+    public int hashCode() {
+      return hash;
+    }
+
+    public boolean equals(Object obj) {
+      if(this==obj) return true;
+      if(!(obj instanceof Key)) return false;
+      Key other = (Key)obj;
+      return pos==other.pos && exactCompound==other.exactCompound
+          && divisibleOne==other.divisibleOne && input.equals(other.input);
+    }
+  }
+}
@@ -22,6 +22,13 @@ import org.apache.lucene.analysis.ko.utils.Utilities;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A result of the morphological analysis of an eojeol.
+ * <p>
+ * The compound noun, josa and eomi lists are made when an element is added or when the list is
+ * asked for, most outputs are single words and never need them. {@link #hasCNoun()} tells
+ * whether there are compound nouns without making the list.
+ */
 public class AnalysisOutput implements Cloneable {
 
   public static final int SCORE_CORRECT = 100;
@@ -34,16 +41,16 @@ public class AnalysisOutput implements Cloneable {
   private int score; // score of this result
   private int patn; // word pattern
   private char type; // type of input word
-  private List<CompoundEntry> compound = new ArrayList<CompoundEntry>(); // compound noun of input word
+  private List<CompoundEntry> compound; // compound noun of input word, made on demand
   private String stem;
   private char pos; // 3 simplified stem type
   private char pos2; // pos attr. for 'pos'
   private char dinf; // pos info. in Han-dic
   private String nsfx; // index of noun suffix
   private String josa; // josa string
-  private List<String> jlist = new ArrayList<String>(); // unit-josa sequence
+  private List<String> jlist; // unit-josa sequence, made on demand
   private String eomi;  // Eomi string
-  private List<String> elist = new ArrayList<String>(); // unit-Eomi sequence
+  private List<String> elist; // unit-Eomi sequence, made on demand
   private String pomi; // prefinal Eomi
   private String xverb; // Xverb string
   private String vsfx; // verb suffix
@@ -110,7 +117,7 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public void addJlist(String l) {
-    this.jlist.add(l);
+    getJlist().add(l);
   }
   
   public void setEomi(String s){
@@ -118,11 +125,11 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public void addElist(String l){
-    this.elist.add(l);
+    getElist().add(l);
   }
     
   public void setElist(String l, int index){
-    this.elist.set(index,l);
+    getElist().set(index,l);
   }
   
   public void setPomi(String s) {
@@ -167,12 +174,14 @@ public class AnalysisOutput implements Cloneable {
     return this.josa;
   }
   public List<String> getJlist() {
+    if(this.jlist==null) this.jlist = new ArrayList<String>();
     return this.jlist;
   }
   public String getEomi() {
     return this.eomi;
   }
   public List<String> getElist() {
+    if(this.elist==null) this.elist = new ArrayList<String>();
     return this.elist;
   }
   public String getPomi(){
@@ -205,19 +214,28 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public void addCNoun(CompoundEntry w) {
-    compound.add(w);
+    getCNounList().add(w);
   }
   
   public List<CompoundEntry> getCNounList() {
+    if(compound==null) compound = new ArrayList<CompoundEntry>();
     return compound;
   }
   
+  /**
+   * same as getCNounList().size()&gt;0, without making the list.
+   */
+  public boolean hasCNoun() {
+    return compound!=null&&compound.size()>0;
+  }
+  
   public void setCNoun(List<CompoundEntry> cnoun) {
     compound = cnoun;
   }
   
   public void addCNoun(List<CompoundEntry> cnoun) {
-    compound.addAll(cnoun);
+    if(compound==null) compound = new ArrayList<CompoundEntry>(cnoun);
+    else compound.addAll(cnoun);
   }
   
   /**
@@ -234,6 +252,10 @@ public class AnalysisOutput implements Cloneable {
     this.source = source;
   }
   
+  /**
+   * the clone shares the compound, josa and eomi lists that this output has made.
+   * a list made later belongs to the output that makes it.
+   */
   public AnalysisOutput clone() throws CloneNotSupportedException {
     AnalysisOutput output = (AnalysisOutput)super.clone();
     
@@ -255,6 +277,31 @@ public class AnalysisOutput implements Cloneable {
     return output;
   }
   
+  /**
+   * unlike {@link #clone()}, the compound, josa and eomi lists are copied too,
+   * so the copy can be changed without affecting this output.
+   * @return the copy
+   */
+  public AnalysisOutput copy() {
+    AnalysisOutput output;
+    try {
+      output = (AnalysisOutput)super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException(e);
+    }
+    
+    if(compound!=null) {
+      output.compound = new ArrayList<CompoundEntry>(compound.size());
+      for(CompoundEntry ce : compound) {
+        output.compound.add(new CompoundEntry(ce.getWord(), ce.getOffset(), ce.isExist(), ce.getPos()));
+      }
+    }
+    if(jlist!=null) output.jlist = new ArrayList<String>(jlist);
+    if(elist!=null) output.elist = new ArrayList<String>(elist);
+    
+    return output;
+  }
+  
   public String toString() {
     return Utilities.buildOutputString(this);
   }
@@ -17,9 +17,60 @@ package org.apache.lucene.analysis.ko.morph;
  * limitations under the License.
  */
 
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 public class AnalysisOutputComparator<T> implements Comparator<T> {
+
+  /**
+   * sort the candidates in the order of {@link #compare(Object, Object)}, through a rank made
+   * once for each candidate.
+   * <p>
+   * The comparator can not order two correct nouns or adverbs, it puts the second argument first
+   * whatever the order. The sort of the collections framework then keeps their order for less than
+   * 32 candidates, so the rank makes them equal and keeps their order for any number of candidates.
+   */
+  public static void sort(List<AnalysisOutput> candidates) {
+    int size = candidates.size();
+    if(size<2) return;
+
+    long[] keys = null;
+    if(size<=Ranking.MAX_SIZE) {
+      keys = new long[size];
+      for(int i=0;i<size;i++) {
+        long rank = rank(candidates.get(i));
+        if(rank==Ranking.UNRANKED) {
+          keys = null;
+          break;
+        }
+        keys[i] = Ranking.key(rank, i);
+      }
+    }
+
+    if(keys==null) Collections.sort(candidates, new AnalysisOutputComparator<AnalysisOutput>());
+    else Ranking.sort(candidates, keys, null);
+  }
+
+  /**
+   * the score, the pattern, the length of the compound nouns and the length of the stem.
+   */
+  static long rank(AnalysisOutput o) {
+    if(o.getStem()==null || o.getPatn()<0 || o.getPatn()>=128) return Ranking.UNRANKED;
+
+    boolean correct = o.getScore()==AnalysisOutput.SCORE_CORRECT;
+    boolean first = correct &&
+        (o.getPatn()==PatternConstants.PTN_N || o.getPatn()==PatternConstants.PTN_AID);
+    boolean compounds = o.getScore()==AnalysisOutput.SCORE_COMPOUNDS;
+
+    long rank = Ranking.descending(0, o.getScore(), 7);
+    rank = Ranking.ascending(rank, first ? 0 : 128-o.getPatn(), 8); // the larger pattern first
+    rank = compounds ? Ranking.descending(rank, o.getMaxWordLen(), 10) : Ranking.ascending(rank, 0, 10);
+    rank = compounds ? Ranking.descending(rank, o.getDicWordLen(), 10) : Ranking.ascending(rank, 0, 10);
+    rank = Ranking.ascending(rank, first ? 0 : o.getStem().length(), 10);
+    return rank;
+  }
+
   public int compare(T o1, T o2) {
     
     AnalysisOutput out1 = (AnalysisOutput)o1;
@@ -0,0 +1,92 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.List;
+
+/**
+ * An eojeol analyzed by {@link MorphAnalyzer#analyzeText(CharSequence, AnalyzedTokenHandler)}.
+ * <p>
+ * The same instance is passed for every eojeol of the text, so a handler must copy
+ * what it wants to keep before it returns.
+ */
+public class AnalyzedToken {
+
+  private CharSequence text;
+
+  private int startOffset;
+
+  private int endOffset;
+
+  private int pos;
+
+  private String term;
+
+  private List<AnalysisOutput> outputs;
+
+  void reset(CharSequence text, int startOffset, int endOffset, int pos, String term, List<AnalysisOutput> outputs) {
+    this.text = text;
+    this.startOffset = startOffset;
+    this.endOffset = endOffset;
+    this.pos = pos;
+    this.term = term;
+    this.outputs = outputs;
+  }
+
+  /**
+   * @return the text being analyzed
+   */
+  public CharSequence getText() {
+    return text;
+  }
+
+  /**
+   * @return the offset of the first character of the eojeol in the text
+   */
+  public int getStartOffset() {
+    return startOffset;
+  }
+
+  /**
+   * @return the offset after the last character of the eojeol in the text, a sentence ending period is not included
+   */
+  public int getEndOffset() {
+    return endOffset;
+  }
+
+  /**
+   * @return the position of the eojeol in the sentence, one of {@link MorphAnalyzer#POS_MID} and {@link MorphAnalyzer#POS_END}
+   */
+  public int getPos() {
+    return pos;
+  }
+
+  /**
+   * @return the eojeol, the text between the start and the end offset
+   */
+  public String getTerm() {
+    return term;
+  }
+
+  /**
+   * @return the analysis candidates of the eojeol, the best first
+   */
+  public List<AnalysisOutput> getOutputs() {
+    return outputs;
+  }
+}
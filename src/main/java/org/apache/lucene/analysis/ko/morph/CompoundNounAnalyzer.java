@@ -19,13 +19,10 @@ package org.apache.lucene.analysis.ko.morph;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 import org.apache.lucene.analysis.ko.utils.DictionaryUtil;
+import org.apache.lucene.analysis.ko.utils.PrefixMatchHandler;
 
 /**
  * 복합명사를 분해한다.
@@ -279,6 +276,14 @@ public class CompoundNounAnalyzer {
 
 	/**
 	 * segment the compound noun with more than 6 characters.
+	 * <p>
+	 * The best segmentation is found by dynamic programming over the word
+	 * lattice, from the end of the input to the start. The words starting at a
+	 * position are found with one common prefix search and every single
+	 * character is a word as well. A segmentation scores the total length of
+	 * its words with more than one character. Among the words starting at a
+	 * position the longer one wins a tie, except that a rest made of one word
+	 * wins over a rest with a shorter last word. (정보,법학회) &gt; (정보법,학회)
 	 * 
 	 * @param input
 	 *            he compound noun which should be segmented.
@@ -290,19 +295,56 @@ public class CompoundNounAnalyzer {
 	private boolean analyzeLongText(String input, List<CompoundEntry> outputs,
 			boolean isFirst) throws MorphException {
 
-		// list of the word which start from a specific position.
-		List<TreeMap<Integer, String>> wordlist = new ArrayList<TreeMap<Integer, String>>();
+		int len = input.length();
+		if (len < 1)
+			return false;
 
-		for (int i = 0; i < input.length(); i++) {
-			TreeMap<Integer, String> words = findWords(i, input);
-			wordlist.add(words);
-		}
+		// for the best segmentation of input[pos,len) : the length of the
+		// first word, the score, the number of words and the length of the
+		// last word.
+		int[] first = new int[len];
+		int[] score = new int[len];
+		int[] count = new int[len];
+		int[] last = new int[len];
+
+		NounMatches matches = new NounMatches(len);
+		for (int pos = len - 1; pos >= 0; pos--) {
+			matches.find(input, pos);
+
+			int best = 0;
+			int bestScore = 0;
+
+			// the longest word first, the single character at last.
+			for (int i = matches.size; i >= 0; i--) {
+				int length = i == 0 ? 1 : matches.lengths[i - 1];
+				int end = pos + length;
+
+				int tempscore = length > 1 ? length : 0;
+				if (end < len)
+					tempscore += score[end];
+
+				if (best == 0 || bestScore < tempscore) {
+					best = length;
+					bestScore = tempscore;
+				} else if (bestScore == tempscore && pos + best < len
+						&& end < len && count[end] == 1
+						&& last[end] > last[pos + best]) {
+					// The larger length the last word has, the better
+					best = length;
+					bestScore = tempscore;
+				}
+			}
 
-		if (wordlist.size() < 1)
-			return false;
+			int end = pos + best;
+			first[pos] = best;
+			score[pos] = bestScore;
+			count[pos] = end < len ? count[end] + 1 : 1;
+			last[pos] = end < len ? last[end] : best;
+		}
 
-		Map<Integer, List<String>> posMap = new HashMap<Integer, List<String>>();
-		List<String> entries = getBestCandidate(0, input, wordlist, posMap);
+		List<String> entries = new ArrayList<String>(count[0]);
+		for (int pos = 0; pos < len; pos += first[pos])
+			entries.add(input.substring(pos, pos + first[pos]));
 		mergConsecutiveOneWord(entries);
 
 		int offset = 0;
@@ -354,121 +396,33 @@ public class CompoundNounAnalyzer {
 
 	}
 
-	private List<String> getBestCandidate(int pos, String input,
-			List<TreeMap<Integer, String>> wordlist,
-			Map<Integer, List<String>> posMap) {
-
-		if (wordlist.size() <= pos)
-			return null;
-		if (posMap.get(pos) != null)
-			return posMap.get(pos);
-
-		List<String> results = new ArrayList<String>();
-
-		TreeMap<Integer, String> candidates = wordlist.get(pos);
-		Iterator<Integer> indexes = candidates.descendingKeySet().iterator();
-
-		int score = 0;
-		List<String> bestcandidate = null;
-		String bestterm = null;
-
-		while (indexes.hasNext()) {
-			Integer index = indexes.next();
-			String term = candidates.get(index);
-
-			int tempscore = 0;
-			if (term.length() > 1)
-				tempscore += term.length();
-
-			List<String> terms = null;
-
-			if (pos + term.length() < input.length()) {
-				terms = getBestCandidate(pos + term.length(), input, wordlist,
-						posMap);
-				tempscore += getScore(terms);
-			}
-
-			if (bestterm == null || score < tempscore) {
-				bestcandidate = terms;
-				bestterm = term;
-				score = tempscore;
-			} else if (score == tempscore
-					&& bestcandidate != null
-					&& terms != null
-					&& terms.size() == 1
-					&& terms.get(terms.size() - 1).length() > bestcandidate
-							.get(bestcandidate.size() - 1).length()) { // (정보,법,학회)
-																		// >
-																		// (정보,법,학회)
-																		// / The
-																		// larger
-																		// length
-																		// the
-																		// last
-																		// word
-																		// has,
-																		// the
-																		// better
-				bestcandidate = terms;
-				bestterm = term;
-				score = tempscore;
-			}
-		}
-
-		if (bestterm != null)
-			results.add(bestterm);
-		if (bestcandidate != null)
-			results.addAll(bestcandidate);
-		posMap.put(pos, results);
-
-		return results;
-	}
-
-	private int getScore(List<String> terms) {
-		int score = 0;
-		for (String term : terms) {
-			if (term.length() > 1)
-				score += term.length();
-		}
-		return score;
-	}
-
 	/**
-	 * find the word with max length which start at the start position and then
-	 * return the length of the word.
-	 * 
-	 * @param start
-	 *            the start position
-	 * @param input
-	 *            the compound noun which should be segmented.
-	 * @return the length of the word with the found word.
-	 * @throws MorphException
-	 *             throw exception
+	 * the lengths of the nouns with more than one character which start at a
+	 * position, in ascending order. the buffer is reused for every position.
 	 */
-	private TreeMap<Integer, String> findWords(int start, String input)
-			throws MorphException {
-
-		TreeMap<Integer, String> wordMap = new TreeMap<Integer, String>();
+	private static final class NounMatches implements
+			PrefixMatchHandler<WordEntry> {
 
-		// every term with one character is a candidate.
-		wordMap.put(1, input.substring(start, start + 1));
+		private final int[] lengths;
 
-		for (int i = (start + 2); i <= input.length(); i++) {
-			String text = input.substring(start, i);
+		private int size;
 
-			Iterator<WordEntry> iter = DictionaryUtil.findWithPrefix(text);
-			if (iter == null || !iter.hasNext())
-				break;
+		private int start;
 
-			WordEntry entry = DictionaryUtil.getAllNoun(text);
-			if (entry != null) {
-				wordMap.put(text.length(), text);
-
-			}
+		NounMatches(int capacity) {
+			lengths = new int[capacity];
+		}
 
+		void find(String input, int pos) throws MorphException {
+			start = pos;
+			size = 0;
+			DictionaryUtil.commonPrefixSearch(input, pos, input.length(), this);
 		}
 
-		return wordMap;
+		public void match(int end, WordEntry entry) {
+			if (end - start >= 2 && DictionaryUtil.isAllNoun(entry))
+				lengths[size++] = end - start;
+		}
 	}
 
 	private CompoundEntry[] analysisBySplited(int[] units, String input,
@@ -20,7 +20,7 @@ package org.apache.lucene.analysis.ko.morph;
 import org.apache.lucene.analysis.ko.utils.*;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -49,6 +49,16 @@ public class MorphAnalyzer {
   
   private CompoundNounAnalyzer cnAnalyzer = new CompoundNounAnalyzer();  
   
+  /**
+   * the cache of analysis results, null when caching is disabled.
+   */
+  private AnalysisCache cache = null;
+  
+  /**
+   * the collections reused by each analysis, null unless {@link #setReuseScratch(boolean)} is set.
+   */
+  private Scratch scratch = null;
+  
   public MorphAnalyzer() {
     cnAnalyzer.setExactMach(false);
   }
@@ -66,6 +76,39 @@ public class MorphAnalyzer {
 	  divisibleOne = is;
   }
   
+  /**
+   * set the number of analysis results to be cached. 0 disables the cache.
+   * @param size  the maximum number of cached results
+   */
+  public void setCacheSize(int size) {
+    cache = size>0 ? new AnalysisCache(size) : null;
+  }
+  
+  /**
+   * @return the cache of analysis results, null when caching is disabled
+   */
+  public AnalysisCache getCache() {
+    return cache;
+  }
+  
+  /**
+   * reuse the working collections of the analysis from one call to the next, so that analyzing
+   * a word makes no garbage but the analysis outputs themselves.
+   * <p>
+   * While it is set, the list returned by {@link #analyze(String, int)} and the other analyze
+   * methods belongs to the analyzer and is only valid until the next call. Copy the list to keep
+   * it, the outputs in it are not reused. The analyzer must then be used by one thread at a time,
+   * an analyzer for each indexing thread for example. The default is false.
+   * @param reuse true to reuse the collections
+   */
+  public void setReuseScratch(boolean reuse) {
+    scratch = reuse ? new Scratch() : null;
+  }
+  
+  public boolean isReuseScratch() {
+    return scratch!=null;
+  }
+  
   public List<AnalysisOutput> analyze(String input) throws MorphException {  
 
     if(input.endsWith("."))  
@@ -73,7 +116,44 @@ public class MorphAnalyzer {
     
     return analyze(input, POS_MID);
   }
-  
+
+  /**
+   * analyze all the eojeols of a text in one call.
+   * eojeols are separated by white spaces, and an eojeol ending with a period is analyzed
+   * as the end of a sentence without the period, the same as {@link #analyze(String)}.
+   * the text is scanned in place, so only the eojeol itself is copied for the analysis.
+   *
+   * @param text  the sentence or document
+   * @param handler receives the analyzed eojeols with the offsets in the text
+   * @throws MorphException exception
+   */
+  public void analyzeText(CharSequence text, AnalyzedTokenHandler handler) throws MorphException {
+
+    AnalyzedToken token = new AnalyzedToken();
+    int length = text.length();
+    int i = 0;
+    while(i<length) {
+
+      while(i<length&&Character.isWhitespace(text.charAt(i))) i++;
+      if(i==length) break;
+
+      int start = i;
+      while(i<length&&!Character.isWhitespace(text.charAt(i))) i++;
+
+      int end = i;
+      int pos = POS_MID;
+      if(text.charAt(end-1)=='.') {
+        end--;
+        pos = POS_END;
+      }
+      if(end==start) continue;
+
+      String term = text.subSequence(start, end).toString();
+      token.reset(text, start, end, pos, term, analyze(term, pos));
+      handler.token(token);
+    }
+  }
+
 
   
   /**
@@ -85,7 +165,37 @@ public class MorphAnalyzer {
    */
   public List<AnalysisOutput> analyze(String input, int pos) throws MorphException {    
 
-    List<AnalysisOutput> candidates = new ArrayList<AnalysisOutput>();        
+    if(cache==null) return analyzeWord(input, pos);
+    
+    long version = DictionaryUtil.getVersion();
+    cache.checkVersion(version);
+    
+    boolean exactCompound = cnAnalyzer.isExactMach();
+    List<AnalysisOutput> results = cache.get(input, pos, exactCompound, divisibleOne);
+    if(results==null) {
+      results = analyzeWord(input, pos);
+      cache.put(version, input, pos, exactCompound, divisibleOne, results);
+    }
+    return results;
+  }
+  
+  private List<AnalysisOutput> analyzeWord(String input, int pos) throws MorphException {    
+
+    Scratch s = scratch;
+    List<AnalysisOutput> candidates;
+    List<AnalysisOutput> results;
+    HashMap<String, AnalysisOutput> stems;
+    if(s==null) {
+      candidates = new ArrayList<AnalysisOutput>();
+      results = new ArrayList<AnalysisOutput>();
+      stems = new HashMap<String, AnalysisOutput>();
+    } else {
+      candidates = s.clear(s.candidates);
+      results = s.clear(s.results);
+      stems = s.stems;
+      stems.clear();
+    }
+    
     boolean isVerbOnly = MorphUtil.hasVerbOnly(input);
 
     analysisByRule(input, candidates);    
@@ -97,7 +207,7 @@ public class MorphAnalyzer {
     // check if one letter exists in the compound noun entries
     checkOneLetterInCNoun(candidates);
     
-    Collections.sort(candidates,new AnalysisOutputComparator<AnalysisOutput>());
+    AnalysisOutputComparator.sort(candidates);
     
     // 복합명사 분해여부 결정하여 분해
     boolean changed = false;
@@ -130,16 +240,13 @@ public class MorphAnalyzer {
       filterInCorrect(candidates);
     
     if(changed) {
-      Collections.sort(candidates,new AnalysisOutputComparator<AnalysisOutput>());  
+      AnalysisOutputComparator.sort(candidates);  
     }
 
-    List<AnalysisOutput> results = new ArrayList<AnalysisOutput>();  
-    
     boolean hasCorrect = false;
     boolean hasCorrectNoun = false;
     boolean correctCnoun = false;
     
-    HashMap<String, AnalysisOutput> stems = new HashMap<String, AnalysisOutput>();
     AnalysisOutput noun = null;
     
     double ratio = 0;
@@ -160,7 +267,7 @@ public class MorphAnalyzer {
           &&o.getScore()>=AnalysisOutput.SCORE_SIM_CORRECT) 
       {
         
-        if((hasCorrect||correctCnoun)&&o.getCNounList().size()>0) continue;
+        if((hasCorrect||correctCnoun)&&o.hasCNoun()) continue;
         
         if(o.getPos()==PatternConstants.POS_NOUN) 
         {
@@ -185,7 +292,7 @@ public class MorphAnalyzer {
 //        if(o.getCNounList().size()>0) correctCnoun = true;
       }
       else if(o.getPos()==PatternConstants.POS_NOUN
-          &&o.getCNounList().size()>0&&!hasCorrect
+          &&o.hasCNoun()&&!hasCorrect
           &&!hasCorrectNoun) 
       {
         double curatio = NounUtil.countFoundNouns(o);
@@ -226,17 +333,20 @@ public class MorphAnalyzer {
    * @param candidates  analysis candidates
    */
   private void filterInCorrect(List<AnalysisOutput> candidates) {
-    List<AnalysisOutput> removeds = new ArrayList();
-    
-    for(AnalysisOutput o : candidates) {
-      if(o.getScore()!=AnalysisOutput.SCORE_CORRECT)
-        removeds.add(o);
+    int size = 0;
+    for(int i=0;i<candidates.size();i++) {
+      AnalysisOutput o = candidates.get(i);
+      if(o.getScore()==AnalysisOutput.SCORE_CORRECT)
+        candidates.set(size++, o);
     }
-    
-    for(AnalysisOutput o : removeds) {
-      candidates.remove(o);
-    }
-    
+    truncate(candidates, size);
+  }
+  
+  /**
+   * remove the candidates from the given size, the remaining ones have been moved ahead.
+   */
+  private static void truncate(List<AnalysisOutput> candidates, int size) {
+    for(int i=candidates.size()-1;i>=size;i--) candidates.remove(i);
   }
   
   private void analysisByRule(String input, List<AnalysisOutput> candidates) throws MorphException {
@@ -250,22 +360,23 @@ public class MorphAnalyzer {
     boolean isVerbOnly = false;
     analysisWithEomi(input,"",candidates);
     
+    // josas[i] is the josa input[i,strlen), found in one backward walk
+    String[] josas = scratch==null ? new String[strlen] : scratch.josas(strlen);
+    DictionaryUtil.findJosas(input, josas);
+    
     for(int i=strlen-1;i>0;i--) {
       
-      String stem = input.substring(0,i);
-      String eomi = input.substring(i);
-
-      char[] feature =  SyllableUtil.getFeature(eomi.charAt(0));    
-      if(!isVerbOnly&&josaFlag&&feature[SyllableUtil.IDX_JOSA1]=='1') {        
-        analysisWithJosa(stem,eomi,candidates);
+      char ech = input.charAt(i);
+      if(!isVerbOnly&&josaFlag&&josas[i]!=null&&SyllableUtil.hasFeature(ech, SyllableUtil.IDX_JOSA1)) {        
+        analysisWithJosa(input,i,josas[i],candidates);
       }
       
       if(eomiFlag) {      
-        analysisWithEomi(stem,eomi,candidates);
+        analysisWithEomi(input.substring(0,i),input.substring(i),candidates);
       }      
       
-      if(josaFlag&&feature[SyllableUtil.IDX_JOSA2]=='0') josaFlag = false;
-      if(eomiFlag&&feature[SyllableUtil.IDX_EOMI2]=='0') eomiFlag = false;
+      if(josaFlag&&!SyllableUtil.hasFeature(ech, SyllableUtil.IDX_JOSA2)) josaFlag = false;
+      if(eomiFlag&&!SyllableUtil.hasFeature(ech, SyllableUtil.IDX_EOMI2)) eomiFlag = false;
       
       if(!josaFlag&&!eomiFlag) break;
     }
@@ -294,16 +405,14 @@ public class MorphAnalyzer {
 	  
 	  if(onlyHangul) return true;
 	  
-	  List<AnalysisOutput> removeList = new ArrayList<AnalysisOutput>();
-	  for(AnalysisOutput o : candidates) {
-		  if(MorphUtil.isHanSyllable(o.getStem().charAt(o.getStem().length()-1))) {
-			  removeList.add(o);
+	  int size = 0;
+	  for(int i=0;i<candidates.size();i++) {
+		  AnalysisOutput o = candidates.get(i);
+		  if(!MorphUtil.isHanSyllable(o.getStem().charAt(o.getStem().length()-1))) {
+			  candidates.set(size++, o);
 		  }
 	  }
-	  
-	  for(AnalysisOutput o : removeList) {
-		  candidates.remove(o);
-	  }
+	  truncate(candidates, size);
 	  
 	  return onlyHangul;
   }
@@ -358,23 +467,32 @@ public class MorphAnalyzer {
   public void analysisWithJosa(String stem, String end, List<AnalysisOutput> candidates) throws MorphException {
   
     if(stem==null||stem.length()==0) return;  
+    if(!DictionaryUtil.existJosa(end)) return;
     
-    char[] chrs = MorphUtil.decompose(stem.charAt(stem.length()-1));
-    if(!DictionaryUtil.existJosa(end)||
-        (chrs.length==3&&ConstraintUtil.isTwoJosa(end))||
-        (chrs.length==2&&(ConstraintUtil.isThreeJosa(end))||
+    analysisWithExistingJosa(stem, end, candidates);
+  }
+  
+  /**
+   * same as {@link #analysisWithJosa(String, String, List)} for the split of the input at the boundary,
+   * where the josa has been found by {@link DictionaryUtil#findJosas(CharSequence, String[])}.
+   */
+  private void analysisWithJosa(String input, int boundary, String josa, List<AnalysisOutput> candidates) throws MorphException {
+    analysisWithExistingJosa(input.substring(0,boundary), josa, candidates);
+  }
+  
+  private void analysisWithExistingJosa(String stem, String end, List<AnalysisOutput> candidates) throws MorphException {
+    
+    char last = stem.charAt(stem.length()-1);
+    boolean closed = MorphUtil.jongseong(last)!=0; // 받침이 있는 음절
+    if((closed&&ConstraintUtil.isTwoJosa(end))||
+        (!closed&&MorphUtil.isHanSyllable(last)&&(ConstraintUtil.isThreeJosa(end))||
         "".equals(end))) 
     	return; // 연결이 가능한 조사가 아니면...
 
     AnalysisOutput output = new AnalysisOutput(stem, end, null, PatternConstants.PTN_NJ);
     output.setPos(PatternConstants.POS_NOUN);
     
-    boolean success = false;
-    try {
-      success = NounUtil.analysisMJ(output.clone(), candidates);
-    } catch (CloneNotSupportedException e) {
-      throw new MorphException(e.getMessage(),e);
-    }
+    NounUtil.analysisMJ(output, candidates);
 
     WordEntry entry = DictionaryUtil.getWordExceptVerb(stem);
     if(entry!=null) {
@@ -424,8 +542,8 @@ public class MorphAnalyzer {
         output.setScore(AnalysisOutput.SCORE_CORRECT);
         MorphUtil.buildPtnVM(output, candidates);
         
-        char[] features = SyllableUtil.getFeature(stem.charAt(stem.length()-1)); // ㄹ불규칙일 경우
-        if((features[SyllableUtil.IDX_YNPLN]=='0'||morphs[1].charAt(0)!='ㄴ')&&!"는".equals(end))   // "갈(V),는" 분석될 수 있도록
+        // ㄹ불규칙일 경우
+        if((!SyllableUtil.hasFeature(stem.charAt(stem.length()-1), SyllableUtil.IDX_YNPLN)||morphs[1].charAt(0)!='ㄴ')&&!"는".equals(end))   // "갈(V),는" 분석될 수 있도록
           return;
       }
 
@@ -446,16 +564,16 @@ public class MorphAnalyzer {
 //        }        
       }
 
-      if(VerbUtil.ananlysisNSM(o.clone(), candidates)) return;
+      if(VerbUtil.ananlysisNSM(o, candidates)) return;
       
-      if(VerbUtil.ananlysisNSMXM(o.clone(), candidates)) return;
+      if(VerbUtil.ananlysisNSMXM(o, candidates)) return;
       
       // [체언 + '에서/에서부터' + '이' +  어미]
-      if(VerbUtil.ananlysisNJCM(o.clone(),candidates)) return;      
+      if(VerbUtil.ananlysisNJCM(o,candidates)) return;      
       
-      if(VerbUtil.analysisVMCM(o.clone(),candidates)) return;  
+      if(VerbUtil.analysisVMCM(o,candidates)) return;  
 
-      VerbUtil.analysisVMXM(o.clone(), candidates);
+      VerbUtil.analysisVMXM(o, candidates);
       
     } catch (CloneNotSupportedException e) {
       throw new MorphException(e.getMessage(),e);
@@ -540,7 +658,7 @@ public class MorphAnalyzer {
         confirmCNoun(o);
       }
       if(o.getScore()==AnalysisOutput.SCORE_CORRECT) success = true;
-      if(o.getCNounList().size()>0&&!constraint(o)) o.setScore(AnalysisOutput.SCORE_FAIL);
+      if(o.hasCNoun()&&!constraint(o)) o.setScore(AnalysisOutput.SCORE_FAIL);
     }
 
     return success;
@@ -584,7 +702,7 @@ public class MorphAnalyzer {
 	  if(divisibleOne) return;
 	  
 	  for(AnalysisOutput co : candidates) {
-		  if(co.getCNounList().size()==0) continue;
+		  if(!co.hasCNoun()) continue;
 		  
 		  List<CompoundEntry> entries = co.getCNounList();
 		  for(CompoundEntry ce : entries) {
@@ -595,4 +713,32 @@ public class MorphAnalyzer {
 		  }
 	  }
   }
+  
+  /**
+   * the working collections of an analysis, cleared at the start of the next one.
+   */
+  private static final class Scratch {
+    
+    final List<AnalysisOutput> candidates = new ArrayList<AnalysisOutput>();
+    
+    final List<AnalysisOutput> results = new ArrayList<AnalysisOutput>();
+    
+    final HashMap<String, AnalysisOutput> stems = new HashMap<String, AnalysisOutput>();
+    
+    private String[] josas = new String[16];
+    
+    List<AnalysisOutput> clear(List<AnalysisOutput> list) {
+      list.clear();
+      return list;
+    }
+    
+    /**
+     * @return an array of at least the length, cleared up to the length
+     */
+    String[] josas(int length) {
+      if(josas.length<length) josas = new String[Math.max(length, josas.length*2)];
+      else Arrays.fill(josas, 0, length, null);
+      return josas;
+    }
+  }
 }
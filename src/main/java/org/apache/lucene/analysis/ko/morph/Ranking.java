@@ -0,0 +1,105 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts candidates by a rank packed in a long, instead of calling a comparator for each pair.
+ * <p>
+ * The rank of a candidate is made once, from fields of a fixed width where the smaller value
+ * comes first. The index of the candidate is packed in the low bits of the key, so the keys are
+ * distinct and the primitive sort keeps the order of equal ranks, like a stable sort does.
+ */
+final class Ranking {
+
+  static final int INDEX_BITS = 16;
+
+  /**
+   * lists longer than this are sorted by the comparator.
+   */
+  static final int MAX_SIZE = 1<<INDEX_BITS;
+
+  /**
+   * the rank when a field does not fit its width.
+   */
+  static final long UNRANKED = -1;
+
+  private Ranking() {
+  }
+
+  /**
+   * append a field to the rank, the smaller value comes first.
+   * @return the new rank, or {@link #UNRANKED} when the value does not fit in the bits
+   */
+  static long ascending(long rank, int value, int bits) {
+    if(rank<0||value<0||value>=(1<<bits)) return UNRANKED;
+    return (rank<<bits)|value;
+  }
+
+  /**
+   * append a field to the rank, the larger value comes first.
+   * @return the new rank, or {@link #UNRANKED} when the value does not fit in the bits
+   */
+  static long descending(long rank, int value, int bits) {
+    if(value<0||value>=(1<<bits)) return UNRANKED;
+    return ascending(rank, (1<<bits)-1-value, bits);
+  }
+
+  static long key(long rank, int index) {
+    return (rank<<INDEX_BITS)|index;
+  }
+
+  static long rank(long key) {
+    return key>>>INDEX_BITS;
+  }
+
+  static int index(long key) {
+    return (int)(key&(MAX_SIZE-1));
+  }
+
+  /**
+   * sort the list in place by the keys made with {@link #key(long, int)}.
+   * @param list  the elements
+   * @param keys  the key of each element of the list
+   * @param ties  orders the elements of the same rank, null to keep their order
+   */
+  @SuppressWarnings("unchecked")
+  static <T> void sort(List<T> list, long[] keys, Comparator<? super T> ties) {
+    Object[] elements = list.toArray();
+    Arrays.sort(keys);
+
+    if(ties!=null) {
+      // a stable insertion sort of each run of the same rank, the runs are short
+      for(int start=0,end;start<keys.length;start=end) {
+        long rank = rank(keys[start]);
+        for(end=start+1;end<keys.length&&rank(keys[end])==rank;end++) {
+          long key = keys[end];
+          T e = (T)elements[index(key)];
+          int i = end;
+          for(;i>start&&ties.compare(e, (T)elements[index(keys[i-1])])<0;i--) keys[i] = keys[i-1];
+          keys[i] = key;
+        }
+      }
+    }
+
+    for(int i=0;i<keys.length;i++) list.set(i, (T)elements[index(keys[i])]);
+  }
+}
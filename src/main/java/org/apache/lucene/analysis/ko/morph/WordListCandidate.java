@@ -23,17 +23,35 @@ import java.util.List;
 
 /**
  * store the word list into which an unsegmented sentence can be divide.
+ * <p>
+ * The words are kept as a linked list from the first word. A word is never changed once
+ * it is created, so the candidates derived from the same candidate share the rest of
+ * their words, and {@link #newCopy()} does not copy the list.
+ * <p>
+ * The correct length, the verb count and the unknown count are kept as the words are added
+ * or replaced. Each word holds what it adds to them, so no operation walks the list.
+ * The getters return the counts of their first call and the later words do not change them,
+ * as with the former cache of the counts. The ranking of the segmentation depends on it.
  */
 public class WordListCandidate implements Cloneable {
   
-  // segmented word list
-  private List<List<AnalysisOutput>> wordList = new ArrayList<List<AnalysisOutput>>();
+  // segmented word list, the first word
+  private Word first = null;
+  
+  private int size = 0;
 
-  private int correctLength = -1;
+  private int correctLength = 0;
+  
+  private int verbCount = 0;
+  
+  private int unknownCount = 0;
+  
+  // the counts returned by the getters, -1 until the first call
+  private int rankedCorrectLength = -1;
   
-  private int verbCount = -1;
+  private int rankedVerbCount = -1;
   
-  private int unknownCount = -1;
+  private int rankedUnknownCount = -1;
   
   public WordListCandidate() {
 
@@ -48,84 +66,107 @@ public class WordListCandidate implements Cloneable {
    * @param analysisOutputs analysis outputs for each word
    */
   public void addWord(List<AnalysisOutput> analysisOutputs) {
-    wordList.add(0, analysisOutputs);
+    first = new Word(analysisOutputs, first);
+    size++;
+    add(first, 1);
   }
   
   public void replaceFirst(List<AnalysisOutput> analysisOutputs) {
-    wordList.set(0, analysisOutputs);
+    if(first==null) throw new IndexOutOfBoundsException("the word list is empty");
+    add(first, -1);
+    first = new Word(analysisOutputs, first.next);
+    add(first, 1);
   }
    
+  /**
+   * Returns the words from the first word. The list is a new copy made at every call, since the
+   * words are kept as a linked list: changing it does not change this candidate, use
+   * {@link #addWord(List)}, {@link #replaceFirst(List)} or {@link #setWordList(List)} instead.
+   * The copy takes time linear in {@link #size()}.
+   * @return a new list of the words, from the first word
+   */
   public List<List<AnalysisOutput>> getWordList() {
-    return this.wordList;
+    List<List<AnalysisOutput>> wordList = new ArrayList<List<AnalysisOutput>>(size);
+    for(Word w=first;w!=null;w=w.next) wordList.add(w.outputs);
+    return wordList;
   }
   
   public void setWordList(List<List<AnalysisOutput>> wordList) {
-    this.wordList = wordList;
+    first = null;
+    correctLength = 0;
+    verbCount = 0;
+    unknownCount = 0;
+    for(int i=wordList.size()-1;i>=0;i--) {
+      first = new Word(wordList.get(i), first);
+      add(first, 1);
+    }
+    size = wordList.size();
+  }
+  
+  private void add(Word w, int sign) {
+    correctLength += sign*w.correctLength;
+    verbCount += sign*w.verbCount;
+    unknownCount += sign*w.unknownCount;
+  }
+  
+  /**
+   * @return the number of words
+   */
+  public int size() {
+    return size;
+  }
+  
+  Word getFirstWord() {
+    return first;
   }
   
   public String getFirstFragment() {
-    return this.wordList.get(0).get(0).getSource();
+    return first.outputs.get(0).getSource();
   }
   
+  /**
+   * @return the sum of the length of the correct words, words with one character are not counted
+   */
   public int getCorrectLength() {
-    
-    if(this.correctLength!=-1) return correctLength;
-    
-    correctLength = 0;
-    for(List<AnalysisOutput> outputs : wordList) {
-      // words with one character is not counted
-      if(outputs.get(0).getSource().length()==1) continue;
-      if(outputs.get(0).getScore()==AnalysisOutput.SCORE_CORRECT)
-        correctLength += outputs.get(0).getSource().length();
-    }
-    
-    return correctLength;
+    if(rankedCorrectLength==-1) rankedCorrectLength = correctLength;
+    return rankedCorrectLength;
   }
   
+  /**
+   * sets the value {@link #getCorrectLength()} returns, -1 takes the current count at the next call
+   */
   public void setCorrectLength(int l) {
-    this.correctLength = l;
+    this.rankedCorrectLength = l;
   }
   
+  /**
+   * @return the number of the verbs, words with one character are not counted
+   */
   public int getVerbCount() {
-    
-    if(this.verbCount!=-1) return verbCount;
-    verbCount = 0;
-    
-    for(List<AnalysisOutput> outputs : wordList) {
-      // words with one character is not counted
-      if(outputs.get(0).getSource().length()==1) continue;
-      int ptn = outputs.get(0).getPatn();
-      
-      if((ptn>=PatternConstants.PTN_VM && ptn <= PatternConstants.PTN_VMXMJ) ||
-          outputs.get(0).getEomi()!=null) {
-        verbCount++;
-      }
-    }
-    
-    return verbCount;
-    
+    if(rankedVerbCount==-1) rankedVerbCount = verbCount;
+    return rankedVerbCount;
   }
   
+  /**
+   * sets the value {@link #getVerbCount()} returns, -1 takes the current count at the next call
+   */
   public void setVerbCount(int c) {
-    this.verbCount = c;
+    this.rankedVerbCount = c;
   }
   
+  /**
+   * @return the number of the words not found in the dictionary
+   */
   public int getUnknownCount() {
-    
-    if(this.unknownCount!=-1) return unknownCount;
-    unknownCount = 0;
-    
-    for(List<AnalysisOutput> outputs : wordList) {
-      int score = outputs.get(0).getScore();
-      if(score<=AnalysisOutput.SCORE_ANALYSIS) unknownCount++;
-    }
-    
-    return unknownCount;
-    
+    if(rankedUnknownCount==-1) rankedUnknownCount = unknownCount;
+    return rankedUnknownCount;
   }
   
+  /**
+   * sets the value {@link #getUnknownCount()} returns, -1 takes the current count at the next call
+   */
   public void setUnknownCount(int c) {
-    this.unknownCount = c;
+    this.rankedUnknownCount = c;
   }
   
   /**
@@ -134,9 +175,45 @@ public class WordListCandidate implements Cloneable {
   public WordListCandidate newCopy() {   
     
     WordListCandidate c = new WordListCandidate();
-    c.wordList.addAll(wordList);
+    c.first = first;
+    c.size = size;
+    c.correctLength = correctLength;
+    c.verbCount = verbCount;
+    c.unknownCount = unknownCount;
     
     return c;
   }
   
+  /**
+   * a word of the list and the link to the next word.
+   */
+  static final class Word {
+    
+    final List<AnalysisOutput> outputs;
+    
+    final Word next;
+    
+    // what the word adds to the counts of the candidate
+    final int correctLength;
+    
+    final int verbCount;
+    
+    final int unknownCount;
+    
+    Word(List<AnalysisOutput> outputs, Word next) {
+      this.outputs = outputs;
+      this.next = next;
+      
+      AnalysisOutput o = outputs.get(0);
+      int length = o.getSource().length();
+      int ptn = o.getPatn();
+      
+      // words with one character is not counted
+      this.correctLength = length>1&&o.getScore()==AnalysisOutput.SCORE_CORRECT ? length : 0;
+      this.verbCount = length>1&&((ptn>=PatternConstants.PTN_VM && ptn <= PatternConstants.PTN_VMXMJ) ||
+          o.getEomi()!=null) ? 1 : 0;
+      this.unknownCount = o.getScore()<=AnalysisOutput.SCORE_ANALYSIS ? 1 : 0;
+    }
+  }
+  
 }
@@ -1,5 +1,6 @@
 package org.apache.lucene.analysis.ko.morph;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -21,7 +22,55 @@ import java.util.List;
  */
 
 public class WordListComparator implements Comparator<WordListCandidate> {
-  
+
+  private static final WordListComparator INSTANCE = new WordListComparator();
+
+  /**
+   * orders the candidates of the same rank by the length of their words.
+   */
+  private static final Comparator<WordListCandidate> BY_WORD_LENGTH = new Comparator<WordListCandidate>() {
+    public int compare(WordListCandidate o1, WordListCandidate o2) {
+      return compareLength(o1.getFirstWord(), o2.getFirstWord());
+    }
+  };
+
+  /**
+   * sort the candidates in the order of {@link #compare(WordListCandidate, WordListCandidate)}.
+   * the counts of each candidate are packed in a rank once, only the candidates of the same
+   * rank are compared by the length of their words.
+   */
+  public static void sort(List<WordListCandidate> candidates) {
+    int size = candidates.size();
+    if(size<2) return;
+
+    long[] keys = null;
+    if(size<=Ranking.MAX_SIZE) {
+      keys = new long[size];
+      for(int i=0;i<size;i++) {
+        long rank = rank(candidates.get(i));
+        if(rank==Ranking.UNRANKED) {
+          keys = null;
+          break;
+        }
+        keys[i] = Ranking.key(rank, i);
+      }
+    }
+
+    if(keys==null) Collections.sort(candidates, INSTANCE);
+    else Ranking.sort(candidates, keys, BY_WORD_LENGTH);
+  }
+
+  /**
+   * the correct length, the number of words, the verb count and the unknown count.
+   */
+  static long rank(WordListCandidate c) {
+    long rank = Ranking.descending(0, c.getCorrectLength(), 12);
+    rank = Ranking.ascending(rank, c.size(), 12);
+    rank = Ranking.descending(rank, c.getVerbCount(), 11);
+    rank = Ranking.ascending(rank, c.getUnknownCount(), 12);
+    return rank;
+  }
+
   public int compare(WordListCandidate o1, WordListCandidate o2) {
     
     int lenC1 = o1.getCorrectLength();
@@ -33,8 +82,8 @@ public class WordListComparator implements Comparator<WordListCandidate> {
     int noUK1 = o1.getUnknownCount();
     int noUK2 = o2.getUnknownCount();
     
-    int size1 = o1.getWordList().size();
-    int size2 = o2.getWordList().size();
+    int size1 = o1.size();
+    int size2 = o2.size();
     
     if(lenC1 != lenC2) return lenC2-lenC1;
 
@@ -44,19 +93,19 @@ public class WordListComparator implements Comparator<WordListCandidate> {
     
     if(noUK1!=noUK2) return noUK1-noUK2;
 
-    return compareLength(o1.getWordList(), o2.getWordList());
+    return compareLength(o1.getFirstWord(), o2.getFirstWord());
   }
   
-  private int compareLength(List<List<AnalysisOutput>> wordList1, 
-      List<List<AnalysisOutput>> wordList2) 
+  private static int compareLength(WordListCandidate.Word word1, 
+      WordListCandidate.Word word2) 
   {
     
-    for(int jj=0;jj<wordList1.size();jj++) {
+    for(;word1!=null;word1=word1.next,word2=word2.next) {
       
-      if(wordList2.size()<=jj) return -1;
+      if(word2==null) return -1;
       
-      int length1 = wordList1.get(jj).get(0).getSource().length();
-      int length2 = wordList2.get(jj).get(0).getSource().length();
+      int length1 = word1.outputs.get(0).getSource().length();
+      int length2 = word2.outputs.get(0).getSource().length();
       
       if(length1 != length2) return length2-length1;
     }
@@ -1,6 +1,7 @@
 package org.apache.lucene.analysis.ko.morph;
 
 import org.apache.lucene.analysis.ko.utils.DictionaryUtil;
+import org.apache.lucene.analysis.ko.utils.PrefixMatchHandler;
 
 import java.util.*;
 
@@ -26,12 +27,31 @@ public class WordSegmentAnalyzer {
 
   private final MorphAnalyzer morphAnal = new MorphAnalyzer();
 
-    private static final int maxCandidate = 64;
+    /**
+     * the candidates are ranked and cut down to the beam width when their number reaches this.
+     */
+    private int maxCandidate = 64;
 
-    private static final int adjustNoOfCandidate = 40;
+    private int adjustNoOfCandidate = 40;
     
     private static final String possibleWordStartJosa = "의은가나며아야에엔여와요이";
 
+    /**
+     * set the number of the segmentation candidates kept for each position. default is 40.
+     * the candidates are pruned when they grow to 8/5 of the width, so the cost of the
+     * segmentation grows linearly with the length of the input at a fixed width.
+     * @param width the beam width
+     */
+    public void setBeamWidth(int width) {
+        if(width<1) throw new IllegalArgumentException("beam width must be positive : "+width);
+        adjustNoOfCandidate = width;
+        maxCandidate = Math.max(width*8/5, width+1);
+    }
+
+    public int getBeamWidth() {
+        return adjustNoOfCandidate;
+    }
+
     @SuppressWarnings("unused")
 	public List<List<AnalysisOutput>> analyze(String inputText) throws MorphException {
         int[] nounPos = new int[inputText.length()];
@@ -76,21 +96,14 @@ public class WordSegmentAnalyzer {
      * @param inputText
      * @return
      */
-    public int findLongestNoun(int start, String inputText) throws MorphException {
-        StringBuffer sb = new StringBuffer();
-        sb.append(inputText.charAt(start));
-
-        int lastIndex = -1;
-        for(int i=start+1;i<inputText.length();i++) {
-            sb.append(inputText.charAt(i));
-            if(!DictionaryUtil.findWithPrefix(sb.toString()).hasNext()) {
-                return lastIndex;
+    public int findLongestNoun(final int start, String inputText) throws MorphException {
+        final int[] lastIndex = new int[]{-1};
+        DictionaryUtil.commonPrefixSearch(inputText, start, inputText.length(), new PrefixMatchHandler<WordEntry>() {
+            public void match(int end, WordEntry entry) {
+                if(end-start>=2&&DictionaryUtil.isAllNoun(entry)) lastIndex[0] = end-1;
             }
-            if(DictionaryUtil.getAllNoun(sb.toString())!=null) {
-                lastIndex = i;
-            }
-        }
-        return lastIndex;
+        });
+        return lastIndex[0];
     }
 
     public List<String> splitByNoun(String inputText, int[] nounPos, int[] oneJosa) throws MorphException {
@@ -144,109 +157,96 @@ public class WordSegmentAnalyzer {
    */
   public void analyze(String inputText, List<List<AnalysisOutput>> result, boolean containOneJosa) throws MorphException {
 
-    List<WordListCandidate> candiateList = new ArrayList<WordListCandidate>();
-
     List<AnalysisOutput> aoList = morphAnal.analyze(inputText);
     if(aoList.get(0).getScore()==AnalysisOutput.SCORE_CORRECT && !containOneJosa) { // valid morpheme
         result.add(aoList);
         return;
     }
 
-      int length = inputText.length();
+    int length = inputText.length();
+    List<WordListCandidate> candiateList = new ArrayList<WordListCandidate>(maxCandidate*2);
+
     // add last character as the first candidate
     WordListCandidate listCandidate = new WordListCandidate(
         morphAnal.analyze(inputText.substring(length-1,length)));
     
     candiateList.add(listCandidate);
     
-    boolean divided = false;
-    
-    Map<String,List<AnalysisOutput>> analyzedSet = new HashMap<String,List<AnalysisOutput>>();
+    // the analyses of the fragments which start at the current position, indexed by the end position.
+    // analyzedAt tells the start position for which the entry was stored.
+    List<AnalysisOutput>[] analyzedSet = newOutputsArray(length+1);
+    int[] analyzedAt = new int[length+1];
+    Arrays.fill(analyzedAt, -1);
     
     // from last position, check whether if each position can be a dividing point.
     for(int start=inputText.length()-2;start >=0 ; start--) {
       
       String thisChar = Character.toString(inputText.charAt(start));
-      List<WordListCandidate> newCandidates = null;
+      int size = candiateList.size();
       
-//      if(!divided) {
-        // newly created candidates
-        newCandidates = new ArrayList<WordListCandidate>();
+      // newly created candidates, which extend the first word of each candidate by this character.
+      // they share the other words with the original candidate.
+      for(int i=0;i<size;i++) {
+        WordListCandidate candidate = candiateList.get(i);
         
-        for(WordListCandidate candidate : candiateList) {
-          
-          String fragment = thisChar + candidate.getFirstFragment();
-          // build the position key with the start position and the end position
-          String posKey = new StringBuffer()
-              .append(start)
-              .append(",")
-              .append(start+candidate.getFirstFragment().length())
-              .toString();
-                    
-          WordListCandidate newCandidate = candidate.newCopy();
-          List<AnalysisOutput> outputs = analyzedSet.get(posKey);
-
-          // check whether if already analyzed.
-          if(outputs == null) {
-            outputs = morphAnal.analyze(fragment);
-            newCandidate.replaceFirst(outputs);
-            analyzedSet.put(posKey, outputs);
-          } else {
-            newCandidate.replaceFirst(outputs);
+        String firstFragment = candidate.getFirstFragment();
+        int end = start+firstFragment.length();
+        
+        List<AnalysisOutput> outputs = null;
+        // check whether if already analyzed.
+        if(end<analyzedAt.length && analyzedAt[end]==start) {
+          outputs = analyzedSet[end];
+        } else {
+          outputs = morphAnal.analyze(thisChar + firstFragment);
+          if(end<analyzedAt.length) {
+            analyzedSet[end] = outputs;
+            analyzedAt[end] = start;
           }
-          
-          newCandidates.add(newCandidate);
         }
-//      }
+        
+        WordListCandidate newCandidate = candidate.newCopy();
+        newCandidate.replaceFirst(outputs);
+        candiateList.add(newCandidate);
+      }
       
       List<AnalysisOutput> outputs = morphAnal.analyze(thisChar);
-
-      String posKey = new StringBuffer()
-          .append(start)
-          .append(",")
-          .append(start+1)
-          .toString();
-
-      analyzedSet.put(posKey, outputs);
-      
-      for(WordListCandidate candidate : candiateList) {
-        candidate.addWord(outputs);
+      for(int i=0;i<size;i++) {
+        candiateList.get(i).addWord(outputs);
       }      
       
-      if(newCandidates!=null) candiateList.addAll(newCandidates);
       if(candiateList.size()>=maxCandidate) {
-          Collections.sort(candiateList, new WordListComparator());
-          removeLast(candiateList,adjustNoOfCandidate);
+          WordListComparator.sort(candiateList);
+          candiateList.subList(adjustNoOfCandidate, candiateList.size()).clear();
       }
-      
-//      int newStart = validation(candiateList, thisChar, start, inputText);
-//
-//      divided = (newStart==start);
-//      if(divided) start = newStart;
     }
     
-     Collections.sort(candiateList, new WordListComparator());
+    WordListComparator.sort(candiateList);
 //    List<AnalysisOutput> result = new ArrayList<AnalysisOutput>();
-    for(WordListCandidate candidate : candiateList) {
+    for(int i=0;i<candiateList.size();i++) {
+      WordListCandidate candidate = candiateList.get(i);
       
-      if(candiateList.indexOf(candidate)!=candiateList.size()-1 && 
+      if(i!=candiateList.size()-1 && 
           hasConsecutiveOneWord(candidate))
         continue;
       
-      for(List<AnalysisOutput> outputs : candidate.getWordList()) {
-        result.add(outputs);
-      }      
+      result.addAll(candidate.getWordList());
       break;
     }
     
   }
   
+  @SuppressWarnings("unchecked")
+  private static List<AnalysisOutput>[] newOutputsArray(int size) {
+    List<?>[] outputs = new List<?>[size];
+    return (List<AnalysisOutput>[])outputs;
+  }
+  
   private boolean hasConsecutiveOneWord(WordListCandidate candidate) {
     
-    int size = candidate.getWordList().size();
-    for(int i=1;i<size;i++) {
-      List<AnalysisOutput> outputs1 = candidate.getWordList().get(i-1);
-      List<AnalysisOutput> outputs2 = candidate.getWordList().get(i);
+    WordListCandidate.Word word = candidate.getFirstWord();
+    for(;word!=null&&word.next!=null;word=word.next) {
+      List<AnalysisOutput> outputs1 = word.outputs;
+      List<AnalysisOutput> outputs2 = word.next.outputs;
       if(outputs1.get(0).getStem().length()==1 
           && outputs2.get(0).getStem().length()==1)
         return true;
@@ -265,7 +265,7 @@ public class WordSegmentAnalyzer {
     for(int i=candiateList.size()-1; i>=0;i--) {
       
       WordListCandidate candidate = candiateList.get(i);
-      AnalysisOutput output = candidate.getWordList().get(0).get(0);
+      AnalysisOutput output = candidate.getFirstWord().outputs.get(0);
       
       int tempStart = validWord(output, start, inputText, lastPos);
       lastPos = false;
@@ -296,7 +296,7 @@ public class WordSegmentAnalyzer {
     for(int i=0;i<candiateList.size();i++) {
       
       WordListCandidate candidate = candiateList.get(i);
-      AnalysisOutput output = candidate.getWordList().get(0).get(0);
+      AnalysisOutput output = candidate.getFirstWord().outputs.get(0);
  
       if(!output.getSource().equals(dividedOutput.getSource()) &&
           !includeNoun(candidate, dividedOutput, i)) 
@@ -315,8 +315,8 @@ public class WordSegmentAnalyzer {
    */
   private boolean includeNoun(WordListCandidate candidate, AnalysisOutput dividedOutput, int pos) {
     
-    if(candidate.getWordList().size()>1) {
-      AnalysisOutput nextOutput = candidate.getWordList().get(1).get(0);
+    if(candidate.size()>1) {
+      AnalysisOutput nextOutput = candidate.getFirstWord().next.outputs.get(0);
       if(nextOutput.getSource().length()>1 &&
           nextOutput.getPatn() == PatternConstants.PTN_N 
           && nextOutput.getScore()==AnalysisOutput.SCORE_CORRECT)
@@ -371,17 +371,4 @@ public class WordSegmentAnalyzer {
     return score;
   }
   
-  private void removeLast(List<WordListCandidate> list, int start) {
-  	List<WordListCandidate> removed = new ArrayList<WordListCandidate>();
-  	for(int i=start;i<list.size();i++) {
-  		removed.add(list.get(i));
-  	}
-  	
-  	for(Object o : removed) {
-  		list.remove(o);
-  	}
-  	
-  	removed=null;
-  }
-  
 }
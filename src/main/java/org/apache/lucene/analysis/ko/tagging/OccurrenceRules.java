@@ -0,0 +1,386 @@
+package org.apache.lucene.analysis.ko.tagging;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.apache.lucene.analysis.ko.morph.PatternConstants;
+import org.apache.lucene.analysis.ko.utils.ConstraintUtil;
+import org.apache.lucene.analysis.ko.utils.DictionaryReader;
+import org.apache.lucene.analysis.ko.utils.DoubleArrayTrie;
+import org.apache.lucene.analysis.ko.utils.LineHandler;
+
+/**
+ * The grammar rules of the tagger dictionary (occurrence.dic), compiled once when loaded.
+ * <p>
+ * A line of the dictionary is
+ * <pre>
+ *   F|R : 앞어절 어휘/앞어절 어미/앞어절 패턴 : 뒷어절 어휘/뒷어절 어미/뒷어절 패턴 : 배타여부
+ * </pre>
+ * The word, ending and pattern lists are split when loaded, and the rules are indexed in hash
+ * maps by the key the tagger looks them up with: the word or the stem of the rear eojeol for
+ * the forward rules, the word or the stem or the ending of the front eojeol for the reverse rules.
+ * Within a key the rules keep the order of the former prefix lookup, the order of their
+ * dictionary keys, so the first matching rule is the same.
+ * <p>
+ * Instances never change after loading, so they are shared between threads without locking.
+ */
+final class OccurrenceRules {
+
+  private static final String NILL = "NILL";
+
+  private static final String NOPATN = "0";
+
+  private static final Rule[] NONE = new Rule[0];
+
+  /**
+   * the rules by their canonical key in key order, for {@link Tagger#getGR(String)}.
+   */
+  private final SortedMap<String, String[]> occurrences;
+
+  private final Map<String, Rule[]> forwardWord;
+
+  private final Map<String, Rule[]> forwardStem;
+
+  private final Map<String, Rule[]> reverseWord;
+
+  private final Map<String, Rule[]> reverseStem;
+
+  private final Map<String, Rule[]> reverseEnding;
+
+  /**
+   * @param name the tagger dictionary, a resource of the class path
+   * @throws MorphException when the dictionary can not be read
+   */
+  OccurrenceRules(String name) throws MorphException {
+
+    // a key added twice keeps the last rule.
+    final TreeMap<String, String[]> sorted = new TreeMap<String, String[]>();
+
+    DictionaryReader.read(name, new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.trim().split(':')!=4) return;
+        String type = line.field(0);
+        String front = line.field(1);
+        String rear = line.field(2);
+
+        String key = null;
+        if("F".equals(type)) key = rear.substring(0,rear.lastIndexOf("/")+1) + front.substring(0,front.lastIndexOf("/"));
+        else key = front.substring(0,front.lastIndexOf("/")+1) + rear.substring(0,rear.lastIndexOf("/"));
+
+        final String joined = front + "/" + rear + "/" + line.field(3);
+        String[] patns = DictionaryReader.split(joined, '/');
+
+        sorted.put(DoubleArrayTrie.canonicalCase(type+key), patns);
+      }
+    });
+    occurrences = Collections.unmodifiableSortedMap(sorted);
+
+    Map<String, List<Rule>> fw = new HashMap<String, List<Rule>>();
+    Map<String, List<Rule>> fs = new HashMap<String, List<Rule>>();
+    Map<String, List<Rule>> rw = new HashMap<String, List<Rule>>();
+    Map<String, List<Rule>> rs = new HashMap<String, List<Rule>>();
+    Map<String, List<Rule>> re = new HashMap<String, List<Rule>>();
+
+    for(Map.Entry<String, String[]> e : sorted.entrySet()) {
+      String[] values = e.getValue();
+      if(values.length<7) continue;
+
+      Rule rule = new Rule(values);
+      if(e.getKey().charAt(0)=='f') {
+        // looked up with the rear eojeol
+        index(values[3], rule, fw, fs);
+      } else if(e.getKey().charAt(0)!='r') {
+        continue;
+      } else if(NILL.equals(values[0])) {
+        // looked up with the ending of the front eojeol
+        add(re, values[1], rule);
+      } else {
+        index(values[0], rule, rw, rs);
+      }
+    }
+
+    forwardWord = toArrays(fw);
+    forwardStem = toArrays(fs);
+    reverseWord = toArrays(rw);
+    reverseStem = toArrays(rs);
+    reverseEnding = toArrays(re);
+  }
+
+  /**
+   * @return the rules of the dictionary whose key starts with the prefix, in key order
+   */
+  Iterator<String[]> getPrefixedBy(String prefix) {
+    prefix = DoubleArrayTrie.canonicalCase(prefix);
+    String limit = successor(prefix);
+    SortedMap<String, String[]> range = limit==null ? occurrences.tailMap(prefix) : occurrences.subMap(prefix, limit);
+    return range.values().iterator();
+  }
+
+  /**
+   * @return the least string after all the strings starting with the prefix, null when there is none
+   */
+  private static String successor(String prefix) {
+    int i = prefix.length()-1;
+    while(i>=0 && prefix.charAt(i)==Character.MAX_VALUE) i--;
+    if(i<0) return null;
+    return prefix.substring(0, i) + (char)(prefix.charAt(i)+1);
+  }
+
+  /**
+   * @return the forward rules for the surface form of the rear eojeol
+   */
+  Rule[] forwardWord(String word) {
+    return get(forwardWord, word);
+  }
+
+  /**
+   * @return the forward rules for the stem of the rear eojeol
+   */
+  Rule[] forwardStem(String stem) {
+    return get(forwardStem, stem);
+  }
+
+  /**
+   * @return the reverse rules for the surface form of the front eojeol
+   */
+  Rule[] reverseWord(String word) {
+    return get(reverseWord, word);
+  }
+
+  /**
+   * @return the reverse rules for the stem of the front eojeol
+   */
+  Rule[] reverseStem(String stem) {
+    return get(reverseStem, stem);
+  }
+
+  /**
+   * @return the reverse rules without a word for the ending of the front eojeol
+   */
+  Rule[] reverseEnding(String ending) {
+    return get(reverseEnding, ending);
+  }
+
+  private static Rule[] get(Map<String, Rule[]> map, String key) {
+    if(key==null) return NONE;
+    Rule[] rules = map.get(DoubleArrayTrie.canonicalCase(key));
+    return rules==null ? NONE : rules;
+  }
+
+  /**
+   * index the rule by the word list of the word field, which ends with ^W or ^S.
+   */
+  private static void index(String field, Rule rule, Map<String, List<Rule>> words, Map<String, List<Rule>> stems) {
+    if(field.endsWith("^W")) add(words, field.substring(0, field.length()-2), rule);
+    else if(field.endsWith("^S")) add(stems, field.substring(0, field.length()-2), rule);
+  }
+
+  private static void add(Map<String, List<Rule>> map, String key, Rule rule) {
+    key = DoubleArrayTrie.canonicalCase(key);
+    List<Rule> list = map.get(key);
+    if(list==null) {
+      list = new ArrayList<Rule>(1);
+      map.put(key, list);
+    }
+    list.add(rule);
+  }
+
+  private static Map<String, Rule[]> toArrays(Map<String, List<Rule>> map) {
+    Map<String, Rule[]> result = new HashMap<String, Rule[]>(map.size()*2);
+    for(Map.Entry<String, List<Rule>> e : map.entrySet()) {
+      result.put(e.getKey(), e.getValue().toArray(new Rule[e.getValue().size()]));
+    }
+    return result;
+  }
+
+  /**
+   * a compiled grammar rule. null lists mean no condition.
+   */
+  static final class Rule {
+
+    private final String[] pwords;
+
+    private final boolean pstem;
+
+    private final String[] pends;
+
+    private final PatternSet pptns;
+
+    private final String[] rwords;
+
+    private final boolean rstem;
+
+    private final String[] rends;
+
+    private final PatternSet rptns;
+
+    /**
+     * when the rule does not match, the other candidates of the front eojeol are not tried.
+     */
+    private final boolean exclusive;
+
+    Rule(String[] values) {
+      pwords = words(values[0]);
+      pstem = isStem(values[0]);
+      pends = list(values[1]);
+      pptns = NOPATN.equals(values[2]) ? null : new PatternSet(values[2]);
+      rwords = words(values[3]);
+      rstem = isStem(values[3]);
+      rends = list(values[4]);
+      rptns = NOPATN.equals(values[5]) ? null : new PatternSet(values[5]);
+      exclusive = "1".equals(values[6]);
+    }
+
+    boolean isExclusive() {
+      return exclusive;
+    }
+
+    /**
+     * @param depFront  true if the rule decides the rear eojeol, the words of the front eojeol are checked
+     */
+    boolean matches(String psource, String rsource, AnalysisOutput pmorph, AnalysisOutput rmorph, boolean depFront) {
+
+      if(depFront&&pwords!=null&&!contains(pwords, pstem ? pmorph.getStem() : psource)) // 앞 어절의 어휘
+        return false;
+
+      if(pends!=null&&!contains(pends, ending(pmorph))) // 앞 어절의 어미
+        return false;
+
+      if(pptns!=null&&!pptns.contains(pmorph.getPatn())) // 앞 어절의 패턴
+        return false;
+
+      if(!depFront&&rwords!=null&&!contains(rwords, rstem ? rmorph.getStem() : rsource)) // 뒷 어절의 어휘
+        return false;
+
+      if(rends!=null&&!contains(rends, ending(rmorph))) // 뒷 어절의 어미
+        return false;
+
+      if(rptns!=null&&!rptns.contains(rmorph.getPatn())) // 뒷 어절의 패턴
+        return false;
+
+      return true;
+    }
+
+    private static String ending(AnalysisOutput morph) {
+      String end = morph.getJosa();
+      if(end==null) end = morph.getEomi();
+      return end;
+    }
+
+    private static boolean contains(String[] strs, String text) {
+      for(int i=0;i<strs.length;i++) {
+        if(strs[i].equals(text)) return true;
+      }
+      return false;
+    }
+
+    private static String[] words(String value) {
+      if(NILL.equals(value)) return null;
+      return list(DictionaryReader.split(value, '^')[0]);
+    }
+
+    private static boolean isStem(String value) {
+      String[] types = DictionaryReader.split(value, '^');
+      return types.length>1&&"S".equals(types[1]);
+    }
+
+    private static String[] list(String value) {
+      if(NILL.equals(value)) return null;
+      String[] strs = DictionaryReader.split(value, ',');
+      for(int i=0;i<strs.length;i++) strs[i] = strs[i].intern();
+      return strs;
+    }
+  }
+
+  /**
+   * a list of patterns, where E stands for the eomi phrases and J for the josa noun phrases.
+   */
+  static final class PatternSet {
+
+    /**
+     * bit n is set for the pattern n, when n is less than 64
+     */
+    private final long bits;
+
+    private final int[] others;
+
+    private final boolean eomi;
+
+    private final boolean josa;
+
+    PatternSet(String value) {
+      long b = 0;
+      List<Integer> large = new ArrayList<Integer>();
+      boolean e = false;
+      boolean j = false;
+
+      for(String str : DictionaryReader.split(value, ',')) {
+        if("E".equals(str)) {
+          e = true;
+          continue;
+        }
+        if("J".equals(str)) {
+          j = true;
+          continue;
+        }
+
+        int ptn;
+        try {
+          ptn = Integer.parseInt(str);
+        } catch (NumberFormatException ex) {
+          continue;
+        }
+        if(!Integer.toString(ptn).equals(str)) continue; // only the exact form matched before
+
+        if(ptn>=0&&ptn<64) b |= 1L<<ptn;
+        else large.add(ptn);
+      }
+
+      bits = b;
+      others = new int[large.size()];
+      for(int i=0;i<others.length;i++) others[i] = large.get(i);
+      eomi = e;
+      josa = j;
+    }
+
+    boolean contains(int ptn) {
+      if(ptn>=0&&ptn<64) {
+        if((bits&(1L<<ptn))!=0) return true;
+      } else {
+        for(int i=0;i<others.length;i++) {
+          if(others[i]==ptn) return true;
+        }
+      }
+
+      if(eomi&&ConstraintUtil.isEomiPhrase(ptn)) return true;
+      if(josa&&(ConstraintUtil.isJosaNounPhrase(ptn)||ptn==PatternConstants.PTN_N)) return true;
+
+      return false;
+    }
+  }
+}
@@ -23,28 +23,68 @@ import java.util.List;
 
 import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
 import org.apache.lucene.analysis.ko.morph.MorphException;
-import org.apache.lucene.analysis.ko.morph.PatternConstants;
-import org.apache.lucene.analysis.ko.utils.ConstraintUtil;
-import org.apache.lucene.analysis.ko.utils.FileUtil;
 import org.apache.lucene.analysis.ko.utils.KoreanEnv;
-import org.apache.lucene.analysis.ko.utils.Trie;
 
 /**
  * 여러개의 형태소분석 결과 중에 최적의 것을 선택한다.
  * 이 함수는 문장단위로 호출되어야 한다.
+ * <p>
+ * {@link #tag(List)} takes a whole sentence, keeps the context in local variables and does not
+ * change the given lists, so one instance can be shared between threads.
+ * {@link #tagging(String, String, List, List)} remembers the previous result in the instance and
+ * removes the rejected candidates from the given lists; an instance used that way belongs to one thread.
  */
 public class Tagger {
     
-  private static Trie<String, String[]> occurrences;
-  
-  private static final String tagDicLoc = "tagger.dic";
-  
-  private static final String NILL = "NILL";
+  /**
+   * the tagger dictionary. it is not changed after loading, so it is read without locking.
+   */
+  private static volatile OccurrenceRules rules;
   
-  private static final String NOPATN = "0";
+  private static final String tagDicLoc = KoreanEnv.FILE_TAGGER;
   
   private AnalysisOutput po;
   
+  /**
+   * choose the best analysis of every eojeol of a sentence.
+   * the eojeol is the source of its first candidate.
+   * 
+   * @param sentence  the analysis candidates of the eojeols, in the order of the sentence
+   * @return the chosen analysis of each eojeol, null for an eojeol without candidates
+   * @throws MorphException exception
+   */
+  public List<AnalysisOutput> tag(List<List<AnalysisOutput>> sentence)  throws MorphException {
+    
+    List<AnalysisOutput> result = new ArrayList<AnalysisOutput>(sentence.size());
+    
+    AnalysisOutput prev = null;
+    String prevSource = null;
+    
+    for(int i=0;i<sentence.size();i++) {
+      
+      List<AnalysisOutput> pmorphs = sentence.get(i);
+      if(pmorphs==null||pmorphs.size()==0) {
+        result.add(null);
+        prev = null;
+        prevSource = null;
+        continue;
+      }
+      
+      List<AnalysisOutput> rmorphs = i+1<sentence.size() ? sentence.get(i+1) : null;
+      
+      String psource = pmorphs.get(0).getSource();
+      String rsource = rmorphs==null||rmorphs.size()==0 ? null : rmorphs.get(0).getSource();
+      
+      // the rejected candidates are removed from a copy
+      prev = lookupBest(psource, rsource, new ArrayList<AnalysisOutput>(pmorphs), rmorphs, prev, prevSource);
+      prevSource = psource;
+      
+      result.add(prev);
+    }
+    
+    return result;
+  }
+  
   public AnalysisOutput tagging(String psource, List<AnalysisOutput> pmorphs)  throws MorphException {
           
     return tagging(psource, null, pmorphs, null);
@@ -55,7 +95,7 @@ public class Tagger {
 
     if((pmorphs==null||pmorphs.size()==0)&&(rmorphs==null||rmorphs.size()==0)) return null;
   
-    po = lookupBest(psource, rsource, pmorphs, rmorphs);
+    po = lookupBest(psource, rsource, pmorphs, rmorphs, po, po==null ? null : po.getSource());
     
     po.setSource(psource);
 
@@ -69,7 +109,8 @@ public class Tagger {
    * 1. 첫번째는 어간으로 시작되는 문법 규칙을 찾는다.
    * 2. 두번째는 표층형으로 시작되는 문법규칙을 찾는다.
    */
-  private AnalysisOutput lookupBest(String psource,String rsource, List<AnalysisOutput> pmorphs, List<AnalysisOutput> rmorphs)  throws MorphException {
+  private AnalysisOutput lookupBest(String psource,String rsource, List<AnalysisOutput> pmorphs, List<AnalysisOutput> rmorphs, 
+                                    AnalysisOutput prev, String prevSource)  throws MorphException {
     
     if(pmorphs.size()==1) return pmorphs.get(0);
 
@@ -77,7 +118,7 @@ public class Tagger {
     if(rmorphs!=null&&rmorphs.size()!=0) select = lookupBestByRWord(psource, rsource, pmorphs, rmorphs);    
     if(select!=null) return select;
 
-    if(po!=null) select = lookupBestByPWord(psource, pmorphs);
+    if(prev!=null) select = lookupBestByPWord(psource, pmorphs, prev, prevSource);
     
     if(select!=null) return select;
 
@@ -88,19 +129,17 @@ public class Tagger {
    * 앞 어절에 의해 현재 어절을 결정한다.
    * 앞 어절은 NULL이 아니다.
    */
-  private AnalysisOutput lookupBestByPWord(String rsource, List<AnalysisOutput> rmorphs)  throws MorphException {
+  private AnalysisOutput lookupBestByPWord(String rsource, List<AnalysisOutput> rmorphs, AnalysisOutput prev, String prevSource)  throws MorphException {
     
     List<AnalysisOutput> removes = new ArrayList<AnalysisOutput>();        
+    OccurrenceRules dic = getRules();
 
     for(AnalysisOutput morph : rmorphs) {
   
-      Iterator<String[]> iterw = getGR("F"+rsource+"^W");
-
-      AnalysisOutput best = selectBest(iterw, po.getSource(), rsource, po, morph, true, removes);
+      AnalysisOutput best = selectBest(dic.forwardWord(rsource), prevSource, rsource, prev, morph, true, removes);
       if(best!=null) return best;            
 
-      Iterator<String[]> iters = getGR("F"+morph.getStem()+"^S");
-      best = selectBest(iters, po.getSource(), rsource, po, morph, true, removes);
+      best = selectBest(dic.forwardStem(morph.getStem()), prevSource, rsource, prev, morph, true, removes);
       if(best!=null) return best;        
       
     }  
@@ -120,30 +159,24 @@ public class Tagger {
   private AnalysisOutput lookupBestByRWord(String psource, String rsource, List<AnalysisOutput> pmorphs, List<AnalysisOutput> rmorphs)  throws MorphException {
     
     List<AnalysisOutput> removes = new ArrayList<AnalysisOutput>();
+    OccurrenceRules dic = getRules();
     
     for(AnalysisOutput rmorph : rmorphs) {
       
       if(rmorph.getScore()!=AnalysisOutput.SCORE_CORRECT) break;
       
-      String rend = rmorph.getJosa();
-      if(rend==null) rend = rmorph.getEomi();            
-      
       for(AnalysisOutput pmorph : pmorphs) {            
       
-        Iterator<String[]> iterw = getGR("R"+psource+"^W/");
-        
         String pend = pmorph.getJosa();
         if(pend==null) pend = pmorph.getEomi();
         
-        AnalysisOutput best = selectBest(iterw, psource, rsource, pmorph, rmorph, false, removes);
+        AnalysisOutput best = selectBest(dic.reverseWord(psource), psource, rsource, pmorph, rmorph, false, removes);
         if(best!=null) return best;  
                 
-        Iterator<String[]> iters = getGR("R"+NILL+"/"+pend+"/");  
-        best = selectBest(iters, psource, rsource, pmorph, rmorph, false, removes);
+        best = selectBest(dic.reverseEnding(pend), psource, rsource, pmorph, rmorph, false, removes);
         if(best!=null) return best;  
         
-        iters = getGR("R"+pmorph.getStem()+"^S/");  
-        best = selectBest(iters, psource, rsource, pmorph, rmorph, false, removes);
+        best = selectBest(dic.reverseStem(pmorph.getStem()), psource, rsource, pmorph, rmorph, false, removes);
         if(best!=null) return best;          
         
       }
@@ -158,17 +191,17 @@ public class Tagger {
     
   }
   
-  private AnalysisOutput selectBest(Iterator<String[]> iter, String psource, String rsource, 
+  private AnalysisOutput selectBest(OccurrenceRules.Rule[] rules, String psource, String rsource, 
                                     AnalysisOutput pmorph, AnalysisOutput rmorph, boolean rear, List<AnalysisOutput> removes) {
 
-    while(iter.hasNext()) {    
+    for(int i=0;i<rules.length;i++) {    
 
-      String[] values = iter.next();
+      OccurrenceRules.Rule rule = rules[i];
     
-      if(checkGrammer(values, psource, rsource, pmorph, rmorph, rear)) {
+      if(rule.matches(psource, rsource, pmorph, rmorph, rear)) {
         if(rear) return rmorph;
         else return pmorph;
-      } else if("1".equals(values[6])) {
+      } else if(rule.isExclusive()) {
         if(!removes.contains(pmorph)) removes.add(pmorph);
         break;
       }        
@@ -177,126 +210,45 @@ public class Tagger {
     return null;
     
   }
-  
-  private boolean checkGrammer(String[] values, String psource, String rsource, AnalysisOutput pmorph, AnalysisOutput rmorph, boolean depFront) {
-    
-    boolean ok = true;    
-    
-    String pend = pmorph.getJosa();
-    if(pend==null) pend = pmorph.getEomi();
-
-    String rend = rmorph.getJosa();
-    if(rend==null) rend = rmorph.getEomi();
-
-    if(depFront&&!NILL.equals(values[0])&&!checkWord(psource,values[0],pmorph)) { // 앞 어절의 어휘
-      return false;
-    }       
-
-    if(!NILL.equals(values[1])&& !checkEomi(values[1], pend)) { // 앞 어절의 어미
-      return false;
-    }
-
-    if(!NOPATN.equals(values[2])&&!checkPattern(values[2], pmorph.getPatn())) {// 앞 어절의 패턴
-      return false;
-    }   
-
-    if(!depFront&&!NILL.equals(values[3])&&!checkWord(rsource,values[3],rmorph)) { // 뒷 어절의 어휘
-      return false;      
-    }
-
-    if(!NILL.equals(values[4])&& !checkEomi(values[4], rend)) { // 뒷 어절의 어미
-      return false;
-    }
 
-    if(!NOPATN.equals(values[5]) && !checkPattern(values[5], rmorph.getPatn())) { // 뒷 어절의 패턴
-      return false;
-    }
+  /**
+   * Returns the rules of the tagger dictionary whose key starts with the prefix, in key order.
+   * the key is the direction (F or R) followed by the word and the ending of the deciding eojeol
+   * and of the other eojeol, for example "F수^W/NILL/NILL/을,를,ㄹ".
+   */
+  public static Iterator<String[]> getGR(String prefix) throws MorphException {
 
-    return true;
-    
+    return getRules().getPrefixedBy(prefix);
   }
   
-  private boolean checkWord(String source, String value, AnalysisOutput morph) {    
-    
-    String[] types = value.split("[\\^]+");
-    String[] strs  = types[0].split("[,]+");
-    
-    String text = source;
-    if("S".equals(types[1])) text = morph.getStem();    
-  
-    for(int i=0;i<strs.length;i++) {
-      if(strs[i].equals(text)) return true;
-    }
+  private static OccurrenceRules getRules() throws MorphException {
     
-    return false;
+    OccurrenceRules dic = rules;
+    if(dic==null) dic = loadTaggerDic();
+    return dic;
   }
   
-  private boolean checkEomi(String value, String rend) {
-    
-    String[] strs  = value.split("[,]+");
-    
-    for(int i=0;i<strs.length;i++) {
-      if(strs[i].equals(rend)) return true;
-    }
-    
-    return false;    
-  }
-  
-  private boolean checkPattern(String value, int ptn) {
-    
-    String[] strs  = value.split("[,]+");
-    String strPtn = Integer.toString(ptn);
-    
-    for(int i=0;i<strs.length;i++) {
-      
-      if("E".equals(strs[i])&&ConstraintUtil.isEomiPhrase(ptn))
-        return true;
-      else if("J".equals(strs[i])&&
-          (ConstraintUtil.isJosaNounPhrase(ptn)||ptn==PatternConstants.PTN_N)) 
-        return true;      
-      else if(strs[i].equals(strPtn)) 
-        return true;
-      
-    }
-    
-    return false;    
-  }
-
-  @SuppressWarnings("unchecked")
-  public static synchronized Iterator<String[]> getGR(String prefix) throws MorphException {
-
-    if(occurrences==null) loadTaggerDic();
-
-    return occurrences.getPrefixedBy(prefix);
+  /**
+   * load the tagger dictionary, if it has not been loaded yet. it is otherwise loaded by the first tagging.
+   */
+  public static void warmUp() throws MorphException {
+    getRules();
   }
   
-  private static synchronized void loadTaggerDic() throws MorphException {
+  private static synchronized OccurrenceRules loadTaggerDic() throws MorphException {
     
-    occurrences = new Trie<String, String[]>(true);
+    if(rules!=null) return rules;
     
+    OccurrenceRules dic;
     try {
       
-      List<String> strs = FileUtil.readLines(KoreanEnv.getInstance().getValue(tagDicLoc), "UTF-8");
-      
-      for(String str : strs) {
-        if(str==null) continue;
-        str = str.trim();
-        String[] syls = str.split("[:]+");
-        if(syls.length!=4) continue;
-        
-        String key = null;        
-        if("F".equals(syls[0])) key = syls[2].substring(0,syls[2].lastIndexOf("/")+1) + syls[1].substring(0,syls[1].lastIndexOf("/"));
-        else key = syls[1].substring(0,syls[1].lastIndexOf("/")+1) + syls[2].substring(0,syls[2].lastIndexOf("/"));
-
-        final String joined = syls[1] + "/" + syls[2] + "/" + syls[3];
-        String[] patns = joined.split("[/]+");
-        
-        occurrences.add(syls[0]+key, patns);
-        
-      }      
+      dic = new OccurrenceRules(KoreanEnv.getInstance().getValue(tagDicLoc));
       
     } catch (Exception e) {
       throw new MorphException("Fail to read the tagger dictionary.("+tagDicLoc+")\n"+e.getMessage());
     }
+    
+    rules = dic;
+    return dic;
   }
 }
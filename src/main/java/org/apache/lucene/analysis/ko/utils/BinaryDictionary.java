@@ -0,0 +1,305 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.CompoundEntry;
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.apache.lucene.analysis.ko.morph.WordEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a dictionary image written by {@link DictionaryCompiler}.
+ * <p>
+ * The image is mapped with {@link FileChannel#map} and every lookup is answered
+ * straight from the mapped buffer, so the lexicon costs almost nothing on the heap
+ * and opening it takes no parsing. {@link WordEntry} objects are only built for the
+ * entries that are actually returned.
+ * <p>
+ * Layout (big endian, all offsets in units of the section they point into):
+ * <pre>
+ *   header     int magic, int version, int entryCount, int compoundCount, int poolLength
+ *   entries    entryCount * ENTRY_INTS ints, sorted by key
+ *   compounds  compoundCount * COMPOUND_INTS ints
+ *   pool       poolLength chars (keys, words, features, compound words)
+ * </pre>
+ * Keys are stored in the canonical case of {@link DoubleArrayTrie}, so lookups
+ * behave exactly like the text dictionary.
+ */
+public class BinaryDictionary {
+
+  public static final int MAGIC = 0x41524443; // "ARDC"
+
+  public static final int VERSION = 1;
+
+  static final int HEADER_INTS = 5;
+
+  static final int ENTRY_KEY_OFF = 0;
+  static final int ENTRY_KEY_LEN = 1;
+  static final int ENTRY_WORD_OFF = 2; // -1 when the word is equal to the key
+  static final int ENTRY_WORD_LEN = 3;
+  static final int ENTRY_FEAT_OFF = 4;
+  static final int ENTRY_FEAT_LEN = 5;
+  static final int ENTRY_COMP_START = 6;
+  static final int ENTRY_COMP_COUNT = 7;
+  static final int ENTRY_INTS = 8;
+
+  static final int COMP_WORD_OFF = 0;
+  static final int COMP_WORD_LEN = 1;
+  static final int COMP_OFFSET = 2;
+  static final int COMPOUND_INTS = 3;
+
+  private final IntBuffer entries;
+
+  private final IntBuffer compounds;
+
+  private final CharBuffer pool;
+
+  private final int size;
+
+  private BinaryDictionary(ByteBuffer buffer) throws MorphException {
+
+    IntBuffer header = buffer.asIntBuffer();
+    if(header.remaining()<HEADER_INTS || header.get(0)!=MAGIC)
+      throw new MorphException("not a compiled dictionary image");
+    if(header.get(1)!=VERSION)
+      throw new MorphException("unsupported dictionary image version "+header.get(1)+", expected "+VERSION);
+
+    this.size = header.get(2);
+    int compoundCount = header.get(3);
+    int poolLength = header.get(4);
+
+    int pos = HEADER_INTS*4;
+    buffer.position(pos);
+    this.entries = slice(buffer, size*ENTRY_INTS*4).asIntBuffer();
+    pos += size*ENTRY_INTS*4;
+    buffer.position(pos);
+    this.compounds = slice(buffer, compoundCount*COMPOUND_INTS*4).asIntBuffer();
+    pos += compoundCount*COMPOUND_INTS*4;
+    buffer.position(pos);
+    this.pool = slice(buffer, poolLength*2).asCharBuffer();
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int length) throws MorphException {
+    if(buffer.remaining()<length) throw new MorphException("truncated dictionary image");
+    ByteBuffer slice = buffer.slice();
+    slice.limit(length);
+    return slice;
+  }
+
+  /**
+   * map the compiled dictionary image.
+   * @param file  the image written by {@link DictionaryCompiler}
+   * @return the dictionary
+   * @throws MorphException when the file can not be read or is not a valid image
+   */
+  public static BinaryDictionary open(File file) throws MorphException {
+    RandomAccessFile raf = null;
+    try {
+      raf = new RandomAccessFile(file, "r");
+      FileChannel channel = raf.getChannel();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new BinaryDictionary(buffer);
+    } catch (IOException e) {
+      throw new MorphException("Fail to map the dictionary image.("+file+")",e);
+    } finally {
+      if(raf!=null) {
+        try {
+          raf.close(); // the mapping stays valid after the channel is closed
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the entry associated with the given key, or null if none.
+   */
+  public WordEntry get(String key) {
+    int idx = search(key);
+    if(idx<0) return null;
+    return entryAt(idx);
+  }
+
+  /**
+   * Returns the entries whose key starts with the given prefix, in key order.
+   */
+  public Iterator<WordEntry> getPrefixedBy(String prefix) {
+    int idx = search(prefix);
+    if(idx<0) idx = -(idx+1);
+    return new PrefixIterator(idx, prefix);
+  }
+
+  /**
+   * Reports every key that is a prefix of text[offset,limit).
+   * The range of keys sharing the prefix is narrowed by one character at a time.
+   */
+  public void commonPrefixSearch(CharSequence text, int offset, int limit, PrefixMatchHandler<WordEntry> handler) {
+    int low = 0;
+    int high = size;
+    for(int i=offset;i<limit&&low<high;i++) {
+      int depth = i-offset;
+      char c = DoubleArrayTrie.fold(text.charAt(i));
+      low = bound(low, high, depth, c, false);
+      high = bound(low, high, depth, c, true);
+      if(low<high&&entries.get(low*ENTRY_INTS+ENTRY_KEY_LEN)==depth+1) handler.match(i+1, entryAt(low));
+    }
+  }
+
+  /**
+   * within [low,high), where all keys share the first depth characters, find the first key
+   * whose character at depth is not less (or greater, when upper is true) than c.
+   * keys that end before depth sort first.
+   */
+  private int bound(int low, int high, int depth, char c, boolean upper) {
+    while(low<high) {
+      int middle = (low+high)>>>1;
+      int base = middle*ENTRY_INTS;
+      int ch = entries.get(base+ENTRY_KEY_LEN)>depth ? pool.get(entries.get(base+ENTRY_KEY_OFF)+depth) : -1;
+      if(ch<c||(upper&&ch==c)) low = middle+1;
+      else high = middle;
+    }
+    return low;
+  }
+
+  /**
+   * binary search over the sorted keys.
+   * @return the index of the key, or (-(insertion point) - 1) if the key is not found
+   */
+  private int search(String key) {
+    int low = 0;
+    int high = size-1;
+    while(low<=high) {
+      int middle = (low+high)>>>1;
+      int cmp = compareKey(middle, key);
+      if(cmp<0) low = middle+1;
+      else if(cmp>0) high = middle-1;
+      else return middle;
+    }
+    return -(low+1);
+  }
+
+  private int compareKey(int idx, String key) {
+    int base = idx*ENTRY_INTS;
+    int off = entries.get(base+ENTRY_KEY_OFF);
+    int len = entries.get(base+ENTRY_KEY_LEN);
+    int n = Math.min(len, key.length());
+    for(int i=0;i<n;i++) {
+      char c1 = pool.get(off+i);
+      char c2 = DoubleArrayTrie.fold(key.charAt(i));
+      if(c1!=c2) return c1-c2;
+    }
+    return len-key.length();
+  }
+
+  private boolean startsWith(int idx, String prefix) {
+    int base = idx*ENTRY_INTS;
+    int off = entries.get(base+ENTRY_KEY_OFF);
+    int len = entries.get(base+ENTRY_KEY_LEN);
+    if(len<prefix.length()) return false;
+    for(int i=0;i<prefix.length();i++) {
+      if(pool.get(off+i)!=DoubleArrayTrie.fold(prefix.charAt(i))) return false;
+    }
+    return true;
+  }
+
+  private String string(int off, int len) {
+    char[] chs = new char[len];
+    for(int i=0;i<len;i++) chs[i] = pool.get(off+i);
+    return new String(chs);
+  }
+
+  private WordEntry entryAt(int idx) {
+    int base = idx*ENTRY_INTS;
+
+    String word;
+    if(entries.get(base+ENTRY_WORD_OFF)==-1)
+      word = string(entries.get(base+ENTRY_KEY_OFF), entries.get(base+ENTRY_KEY_LEN));
+    else
+      word = string(entries.get(base+ENTRY_WORD_OFF), entries.get(base+ENTRY_WORD_LEN));
+
+    int featLen = entries.get(base+ENTRY_FEAT_LEN);
+    char[] features = null;
+    if(featLen>=0) {
+      int featOff = entries.get(base+ENTRY_FEAT_OFF);
+      features = new char[featLen];
+      for(int i=0;i<featLen;i++) features[i] = pool.get(featOff+i);
+    }
+
+    WordEntry entry = new WordEntry(word, features);
+
+    int compCount = entries.get(base+ENTRY_COMP_COUNT);
+    if(compCount>0) {
+      int compStart = entries.get(base+ENTRY_COMP_START);
+      List<CompoundEntry> list = new ArrayList<CompoundEntry>(compCount);
+      for(int i=0;i<compCount;i++) {
+        int cbase = (compStart+i)*COMPOUND_INTS;
+        CompoundEntry ce = new CompoundEntry(string(compounds.get(cbase+COMP_WORD_OFF), compounds.get(cbase+COMP_WORD_LEN)));
+        ce.setOffset(compounds.get(cbase+COMP_OFFSET));
+        list.add(ce);
+      }
+      entry.setCompounds(list);
+    }
+
+    return entry;
+  }
+
+  private class PrefixIterator implements Iterator<WordEntry> {
+
+    private int idx;
+
+    private final String prefix;
+
+    PrefixIterator(int start, String prefix) {
+      this.idx = start;
+      this.prefix = prefix;
+    }
+
+    public boolean hasNext() {
+      return idx<size && startsWith(idx, prefix);
+    }
+
+    public WordEntry next() {
+      if(!hasNext()) throw new NoSuchElementException();
+      return entryAt(idx++);
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove from this iterator");
+    }
+  }
+}
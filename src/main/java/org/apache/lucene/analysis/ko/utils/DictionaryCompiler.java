@@ -0,0 +1,165 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.CompoundEntry;
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.apache.lucene.analysis.ko.morph.WordEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Compiles the text dictionaries (dictionary.dic, extension.dic and compounds.dic)
+ * into the image read by {@link BinaryDictionary}.
+ * <p>
+ * The entries are parsed exactly like {@link DictionaryUtil#loadDictionary()} does,
+ * so a later entry with the same key replaces an earlier one.
+ * <pre>
+ *   java org.apache.lucene.analysis.ko.utils.DictionaryCompiler dictionary.bin
+ * </pre>
+ * Point the <code>dictionary.bin</code> property of korean.properties at the written
+ * file to use it.
+ */
+public class DictionaryCompiler {
+
+  public static void main(String[] args) throws Exception {
+    if(args.length!=1) {
+      System.err.println("Usage: DictionaryCompiler <output file>");
+      System.exit(1);
+    }
+
+    long start = System.currentTimeMillis();
+    int size = compile(new File(args[0]));
+    System.out.println(size+" entries written to "+args[0]+" in "+(System.currentTimeMillis()-start)+"ms");
+  }
+
+  /**
+   * compile the text dictionaries configured in korean.properties.
+   * @param out the image file to write
+   * @return the number of entries written
+   * @throws MorphException when the dictionaries can not be read or the image can not be written
+   */
+  public static int compile(File out) throws MorphException {
+    DoubleArrayTrie<WordEntry> dictionary = DictionarySnapshot.loadTextDictionary();
+
+    List<WordEntry> entries = new ArrayList<WordEntry>();
+    Iterator<WordEntry> iter = dictionary.getPrefixedBy("");
+    while(iter.hasNext()) entries.add(iter.next());
+
+    try {
+      write(entries, out);
+    } catch (IOException e) {
+      throw new MorphException("Fail to write the dictionary image.("+out+")",e);
+    }
+    return entries.size();
+  }
+
+  /**
+   * write the entries as a dictionary image. entries with the same key must not be given twice.
+   */
+  static void write(List<WordEntry> list, File out) throws IOException {
+
+    // the binary search of the reader relies on the natural order of the canonical keys
+    List<Item> items = new ArrayList<Item>(list.size());
+    for(WordEntry entry : list) items.add(new Item(DoubleArrayTrie.canonicalCase(entry.getWord()), entry));
+    Collections.sort(items);
+
+    StringBuilder pool = new StringBuilder();
+    List<int[]> compounds = new ArrayList<int[]>();
+    int[] records = new int[items.size()*BinaryDictionary.ENTRY_INTS];
+
+    for(int i=0;i<items.size();i++) {
+      Item item = items.get(i);
+      WordEntry entry = item.entry;
+      int base = i*BinaryDictionary.ENTRY_INTS;
+
+      records[base+BinaryDictionary.ENTRY_KEY_OFF] = pool.length();
+      records[base+BinaryDictionary.ENTRY_KEY_LEN] = item.key.length();
+      pool.append(item.key);
+
+      if(item.key.equals(entry.getWord())) {
+        records[base+BinaryDictionary.ENTRY_WORD_OFF] = -1;
+        records[base+BinaryDictionary.ENTRY_WORD_LEN] = 0;
+      } else {
+        records[base+BinaryDictionary.ENTRY_WORD_OFF] = pool.length();
+        records[base+BinaryDictionary.ENTRY_WORD_LEN] = entry.getWord().length();
+        pool.append(entry.getWord());
+      }
+
+      char[] features = entry.getFeatures();
+      if(features==null) {
+        records[base+BinaryDictionary.ENTRY_FEAT_OFF] = 0;
+        records[base+BinaryDictionary.ENTRY_FEAT_LEN] = -1;
+      } else {
+        records[base+BinaryDictionary.ENTRY_FEAT_OFF] = pool.length();
+        records[base+BinaryDictionary.ENTRY_FEAT_LEN] = features.length;
+        pool.append(features);
+      }
+
+      List<CompoundEntry> comps = entry.getCompounds();
+      records[base+BinaryDictionary.ENTRY_COMP_START] = compounds.size();
+      records[base+BinaryDictionary.ENTRY_COMP_COUNT] = comps==null ? 0 : comps.size();
+      if(comps!=null) {
+        for(CompoundEntry ce : comps) {
+          compounds.add(new int[]{pool.length(), ce.getWord().length(), ce.getOffset()});
+          pool.append(ce.getWord());
+        }
+      }
+    }
+
+    DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)));
+    try {
+      dos.writeInt(BinaryDictionary.MAGIC);
+      dos.writeInt(BinaryDictionary.VERSION);
+      dos.writeInt(items.size());
+      dos.writeInt(compounds.size());
+      dos.writeInt(pool.length());
+      for(int v : records) dos.writeInt(v);
+      for(int[] c : compounds) {
+        for(int v : c) dos.writeInt(v);
+      }
+      dos.writeChars(pool.toString());
+    } finally {
+      dos.close();
+    }
+  }
+
+  private static class Item implements Comparable<Item> {
+
+    private final String key;
+
+    private final WordEntry entry;
+
+    Item(String key, WordEntry entry) {
+      this.key = key;
+      this.entry = entry;
+    }
+
+    public int compareTo(Item o) {
+      return key.compareTo(o.key);
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.MorphException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Reads a dictionary file line by line without keeping the lines.
+ * <p>
+ * The text is decoded into one {@link CharBuffer}, and every line is handed to a {@link LineHandler}
+ * as a view of that buffer, so no string is made for a line unless the handler asks for one.
+ * The fields of a line are found by {@link Line#split(char)} without regular expressions.
+ * Lines starting with '!' (or a byte order mark and '!') are comments and are skipped,
+ * like {@link FileUtil#readLines(Reader)} does.
+ */
+public final class DictionaryReader {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private DictionaryReader() {
+  }
+
+  /**
+   * read a resource of the class path, see {@link FileUtil#openResource(String)}.
+   * @param name  the name of the resource, a UTF-8 text
+   * @throws MorphException when the resource can not be read, or thrown by the handler
+   */
+  public static void read(String name, LineHandler handler) throws MorphException {
+    InputStream in = null;
+    try {
+      in = FileUtil.openResource(name);
+      read(new InputStreamReader(in, UTF8), handler);
+    } catch (IOException e) {
+      throw new MorphException("Fail to read the dictionary.("+name+")",e);
+    } finally {
+      FileUtil.closeQuietly(in);
+    }
+  }
+
+  /**
+   * read a UTF-8 text file.
+   * @throws MorphException when the file can not be read, or thrown by the handler
+   */
+  public static void read(File file, LineHandler handler) throws MorphException {
+    InputStream in = null;
+    try {
+      in = FileUtil.openInputStream(file);
+      read(new InputStreamReader(in, UTF8), handler);
+    } catch (IOException e) {
+      throw new MorphException("Fail to read the dictionary.("+file+")",e);
+    } finally {
+      FileUtil.closeQuietly(in);
+    }
+  }
+
+  /**
+   * read the lines of the reader, which is not closed. a line ends with '\n', '\r' or "\r\n".
+   * @throws IOException when the reader fails
+   * @throws MorphException thrown by the handler
+   */
+  public static void read(Reader reader, LineHandler handler) throws IOException, MorphException {
+    CharBuffer buf = CharBuffer.allocate(BUFFER_SIZE);
+    Line line = new Line();
+    boolean skipLF = false;
+    int scanned = 0; // the chars at the front of the buffer known to hold no line end
+
+    while(true) {
+      if(!buf.hasRemaining()) {
+        // a line longer than the buffer
+        CharBuffer larger = CharBuffer.allocate(buf.capacity()*2);
+        buf.flip();
+        larger.put(buf);
+        buf = larger;
+      }
+
+      int n = reader.read(buf);
+      buf.flip();
+
+      char[] chars = buf.array();
+      int limit = buf.limit();
+      int start = 0;
+      for(int i=scanned;i<limit;i++) {
+        char c = chars[i];
+        if(skipLF) {
+          skipLF = false;
+          if(c=='\n') {
+            start = i+1;
+            continue;
+          }
+        }
+        if(c=='\n'||c=='\r') {
+          deliver(handler, line, chars, start, i);
+          skipLF = c=='\r';
+          start = i+1;
+        }
+      }
+
+      if(n==-1) {
+        if(start<limit) deliver(handler, line, chars, start, limit);
+        return;
+      }
+
+      buf.position(start);
+      buf.compact();
+      scanned = buf.position();
+    }
+  }
+
+  private static void deliver(LineHandler handler, Line line, char[] chars, int start, int end) throws MorphException {
+    if(start<end&&(chars[start]=='!'||(chars[start]=='\uFEFF'&&start+1<end&&chars[start+1]=='!'))) return;
+    line.set(chars, start, end);
+    handler.line(line);
+    line.index++;
+  }
+
+  /**
+   * split the text like <code>str.split("[sep]+")</code> does.
+   */
+  public static String[] split(String str, char sep) {
+    Line line = new Line();
+    line.set(str.toCharArray(), 0, str.length());
+    String[] fields = new String[line.split(sep)];
+    for(int i=0;i<fields.length;i++) fields[i] = line.field(i);
+    return fields;
+  }
+
+  /**
+   * A line of a dictionary, a view of the buffer of the reader.
+   * It is reused for the next line, so it must not be kept by the handler.
+   */
+  public static final class Line implements CharSequence {
+
+    private char[] chars;
+
+    private int start;
+
+    private int end;
+
+    private int index = 0;
+
+    private int fieldCount = 0;
+
+    /**
+     * the start and the end of each field
+     */
+    private int[] bounds = new int[8];
+
+    private Line() {
+    }
+
+    private void set(char[] chars, int start, int end) {
+      this.chars = chars;
+      this.start = start;
+      this.end = end;
+      this.fieldCount = 0;
+    }
+
+    /**
+     * @return the number of the lines before this one in the file, not counting the comments
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    public int length() {
+      return end-start;
+    }
+
+    public char charAt(int index) {
+      if(index<0||index>=end-start) throw new IndexOutOfBoundsException(String.valueOf(index));
+      return chars[start+index];
+    }
+
+    public CharSequence subSequence(int from, int to) {
+      return toString().subSequence(from, to);
+    }
+
+    public String toString() {
+      return new String(chars, start, end-start);
+    }
+
+    /**
+     * remove the white space at both ends of the line, like {@link String#trim()}.
+     * @return this line
+     */
+    public Line trim() {
+      while(start<end&&chars[start]<=' ') start++;
+      while(start<end&&chars[end-1]<=' ') end--;
+      return this;
+    }
+
+    /**
+     * remove the first chars of the line.
+     * @return this line
+     */
+    public Line skip(int count) {
+      if(count<0||count>end-start) throw new IndexOutOfBoundsException(String.valueOf(count));
+      start += count;
+      return this;
+    }
+
+    /**
+     * @return true if the line contains the char
+     */
+    public boolean contains(char c) {
+      for(int i=start;i<end;i++) {
+        if(chars[i]==c) return true;
+      }
+      return false;
+    }
+
+    /**
+     * split the line into fields separated by one or more sep, with the same fields as
+     * <code>line.split("[sep]+")</code>: a separator at the start makes an empty first field,
+     * the empty fields at the end are removed and an empty line has one empty field.
+     * @return the number of fields
+     */
+    public int split(char sep) {
+      int count = 0;
+      int from = start;
+      int i = start;
+      while(i<end) {
+        if(chars[i]!=sep) {
+          i++;
+          continue;
+        }
+        count = addField(count, from, i);
+        while(i<end&&chars[i]==sep) i++;
+        from = i;
+      }
+      if(from<end||start==end) count = addField(count, from, end);
+
+      // the empty fields at the end are removed
+      while(count>0&&bounds[count*2-2]==bounds[count*2-1]) count--;
+      if(start==end) count = 1;
+
+      fieldCount = count;
+      return count;
+    }
+
+    private int addField(int count, int from, int to) {
+      if(bounds.length<count*2+2) {
+        int[] larger = new int[bounds.length*2];
+        System.arraycopy(bounds, 0, larger, 0, bounds.length);
+        bounds = larger;
+      }
+      bounds[count*2] = from;
+      bounds[count*2+1] = to;
+      return count+1;
+    }
+
+    /**
+     * @return the field of the last {@link #split(char)}
+     */
+    public String field(int i) {
+      checkField(i);
+      return new String(chars, bounds[i*2], bounds[i*2+1]-bounds[i*2]);
+    }
+
+    /**
+     * @return the field of the last {@link #split(char)}, without the white space at both ends
+     */
+    public String trimmedField(int i) {
+      checkField(i);
+      int from = bounds[i*2];
+      int to = bounds[i*2+1];
+      while(from<to&&chars[from]<=' ') from++;
+      while(from<to&&chars[to-1]<=' ') to--;
+      return new String(chars, from, to-from);
+    }
+
+    private void checkField(int i) {
+      if(i<0||i>=fieldCount) throw new IndexOutOfBoundsException(String.valueOf(i));
+    }
+  }
+}
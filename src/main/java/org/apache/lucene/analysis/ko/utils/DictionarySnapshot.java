@@ -0,0 +1,587 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.CompoundEntry;
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.apache.lucene.analysis.ko.morph.WordEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * All the lexical resources used by {@link DictionaryUtil}, loaded together.
+ * <p>
+ * A snapshot never changes after it is built: every field is final and the maps and tries are
+ * not modified afterwards. Each resource is loaded on its first use, and a snapshot derived by adding
+ * entries shares the resources of the snapshot it was derived from. Any number of threads may read it without locking once it has been
+ * published through a volatile field. Adding entries or loading a user dictionary builds a new
+ * snapshot that shares everything but the added and the user entries.
+ */
+final class DictionarySnapshot {
+
+  /**
+   * the features of a word of the user dictionary given without features, a noun.
+   */
+  private static final String USER_NOUN = "100000000X";
+
+  /**
+   * the text dictionary, null when a compiled dictionary image is configured.
+   */
+  private final LazyResource<DoubleArrayTrie<WordEntry>> dictionary;
+
+  /**
+   * the compiled dictionary image, when one is configured.
+   */
+  private final LazyResource<BinaryDictionary> binary;
+
+  /**
+   * the entries of the user dictionary. they replace the entries of the dictionary with the same key.
+   */
+  private final List<WordEntry> userEntries;
+
+  /**
+   * the entries added at runtime, one per key in the order they were last added. they replace the entries
+   * of the dictionary and of the user dictionary with the same key.
+   */
+  private final List<WordEntry> addedEntries;
+
+  /**
+   * the trie of the user entries and the added entries, null when there is none.
+   */
+  private final DoubleArrayTrie<WordEntry> added;
+
+  final LazyResource<Map<String, String>> josas;
+
+  final LazyResource<Map<String, String>> eomis;
+
+  /**
+   * the josas and the eomis spelled backwards, to find the endings of an eojeol in one backward walk.
+   */
+  final LazyResource<DoubleArrayTrie<String>> josaSuffixes;
+
+  final LazyResource<DoubleArrayTrie<String>> eomiSuffixes;
+
+  final LazyResource<Map<String, String>> prefixs;
+
+  final LazyResource<Map<String, String>> suffixs;
+
+  final LazyResource<Map<String, WordEntry>> uncompounds;
+
+  final LazyResource<Map<String, String>> cjwords;
+
+  final LazyResource<Map<String, String>> abbreviations;
+
+  private DictionarySnapshot(LazyResource<DoubleArrayTrie<WordEntry>> dictionary, LazyResource<BinaryDictionary> binary,
+      List<WordEntry> userEntries, List<WordEntry> addedEntries, DictionarySnapshot resources) {
+    this.dictionary = dictionary;
+    this.binary = binary;
+    this.userEntries = userEntries;
+    this.addedEntries = addedEntries;
+    this.added = buildAdded(userEntries, addedEntries);
+
+    this.josas = resources.josas;
+    this.eomis = resources.eomis;
+    this.josaSuffixes = resources.josaSuffixes;
+    this.eomiSuffixes = resources.eomiSuffixes;
+    this.prefixs = resources.prefixs;
+    this.suffixs = resources.suffixs;
+    this.uncompounds = resources.uncompounds;
+    this.cjwords = resources.cjwords;
+    this.abbreviations = resources.abbreviations;
+  }
+
+  private DictionarySnapshot() throws MorphException {
+    final File image = getDictionaryImage();
+    if(image!=null) {
+      this.binary = new LazyResource<BinaryDictionary>() {
+        protected BinaryDictionary load() throws MorphException {
+          return BinaryDictionary.open(image);
+        }
+      };
+      this.dictionary = null;
+    } else {
+      this.binary = null;
+      this.dictionary = new LazyResource<DoubleArrayTrie<WordEntry>>() {
+        protected DoubleArrayTrie<WordEntry> load() throws MorphException {
+          return loadTextDictionary();
+        }
+      };
+    }
+    this.userEntries = loadUserEntries();
+    this.addedEntries = Collections.emptyList();
+    this.added = buildAdded(userEntries, addedEntries);
+
+    this.josas = fileResource(KoreanEnv.FILE_JOSA);
+    this.eomis = fileResource(KoreanEnv.FILE_EOMI);
+    this.josaSuffixes = suffixResource(josas);
+    this.eomiSuffixes = suffixResource(eomis);
+    this.prefixs = fileResource(KoreanEnv.FILE_PREFIX);
+    this.suffixs = fileResource(KoreanEnv.FILE_SUFFIX);
+    this.uncompounds = new LazyResource<Map<String, WordEntry>>() {
+      protected Map<String, WordEntry> load() throws MorphException {
+        return loadUncompounds();
+      }
+    };
+    this.cjwords = new LazyResource<Map<String, String>>() {
+      protected Map<String, String> load() throws MorphException {
+        return loadCJWords();
+      }
+    };
+    this.abbreviations = new LazyResource<Map<String, String>>() {
+      protected Map<String, String> load() throws MorphException {
+        return loadAbbreviations();
+      }
+    };
+  }
+
+  /**
+   * 사전을 준비한다. 각각의 사전은 처음 사용될 때 읽는다, see {@link #loadResource(String)}.
+   * dictionary.bin 이 지정되어 있으면 컴파일된 사전 이미지를 매핑하고, 그렇지 않으면 텍스트 사전을 읽는다.
+   */
+  static DictionarySnapshot load() throws MorphException {
+    return new DictionarySnapshot();
+  }
+
+  /**
+   * load a resource of this snapshot now, if it has not been loaded yet.
+   * @param name  the key of the resource in korean.properties; dictionary.dic stands for
+   *              the dictionary made of dictionary.dic, extension.dic and compounds.dic
+   * @return false if the resource is not a resource of the snapshot
+   */
+  boolean loadResource(String name) throws MorphException {
+    if(KoreanEnv.FILE_DICTIONARY.equals(name)) {
+      if(binary!=null) binary.get();
+      else dictionary.get();
+    } else if(KoreanEnv.FILE_JOSA.equals(name)) {
+      josaSuffixes.get();
+    } else if(KoreanEnv.FILE_EOMI.equals(name)) {
+      eomiSuffixes.get();
+    } else if(KoreanEnv.FILE_PREFIX.equals(name)) {
+      prefixs.get();
+    } else if(KoreanEnv.FILE_SUFFIX.equals(name)) {
+      suffixs.get();
+    } else if(KoreanEnv.FILE_UNCOMPOUNDS.equals(name)) {
+      uncompounds.get();
+    } else if(KoreanEnv.FILE_CJ.equals(name)) {
+      cjwords.get();
+    } else if(KoreanEnv.FILE_ABBREV.equals(name)) {
+      abbreviations.get();
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return a new snapshot with the given entries added, an entry replaces the added entry with the same key
+   */
+  DictionarySnapshot withEntries(List<WordEntry> entries) {
+    Map<String, WordEntry> merged = new LinkedHashMap<String, WordEntry>((addedEntries.size()+entries.size())*2);
+    for(WordEntry entry : addedEntries) merged.put(DoubleArrayTrie.canonicalCase(entry.getWord()), entry);
+    for(WordEntry entry : entries) {
+      String key = DoubleArrayTrie.canonicalCase(entry.getWord());
+      merged.remove(key);
+      merged.put(key, entry);
+    }
+    List<WordEntry> list = new ArrayList<WordEntry>(merged.values());
+    return new DictionarySnapshot(dictionary, binary, userEntries, Collections.unmodifiableList(list), this);
+  }
+
+  /**
+   * @return a new snapshot whose user dictionary is made of the given entries, the added entries are kept
+   */
+  DictionarySnapshot withUserEntries(List<WordEntry> entries) {
+    List<WordEntry> list = Collections.unmodifiableList(new ArrayList<WordEntry>(entries));
+    return new DictionarySnapshot(dictionary, binary, list, addedEntries, this);
+  }
+
+  List<WordEntry> getUserEntries() {
+    return userEntries;
+  }
+
+  /**
+   * the later entries replace the earlier ones with the same key.
+   */
+  private static DoubleArrayTrie<WordEntry> buildAdded(List<WordEntry> userEntries, List<WordEntry> addedEntries) {
+    if(userEntries.isEmpty()&&addedEntries.isEmpty()) return null;
+
+    DoubleArrayTrie.Builder<WordEntry> builder = new DoubleArrayTrie.Builder<WordEntry>();
+    for(WordEntry entry : userEntries) builder.add(entry.getWord(), entry);
+    for(WordEntry entry : addedEntries) builder.add(entry.getWord(), entry);
+    return builder.build();
+  }
+
+  WordEntry get(String key) throws MorphException {
+    if(added!=null) {
+      WordEntry entry = added.get(key);
+      if(entry!=null) return entry;
+    }
+    return binary==null ? dictionary.get().get(key) : binary.get().get(key);
+  }
+
+  Iterator<WordEntry> getPrefixedBy(String prefix) throws MorphException {
+    Iterator<WordEntry> iter = binary==null ? dictionary.get().getPrefixedBy(prefix) : binary.get().getPrefixedBy(prefix);
+    if(added==null) return iter;
+    return new MergedIterator(added.getPrefixedBy(prefix), iter);
+  }
+
+  void commonPrefixSearch(CharSequence text, int offset, int limit, PrefixMatchHandler<WordEntry> handler) throws MorphException {
+    if(added!=null) {
+      MergedMatches merged = new MergedMatches(handler);
+      added.commonPrefixSearch(text, offset, limit, merged.added);
+      handler = merged;
+    }
+
+    if(binary==null) dictionary.get().commonPrefixSearch(text, offset, limit, handler);
+    else binary.get().commonPrefixSearch(text, offset, limit, handler);
+
+    if(added!=null) ((MergedMatches)handler).finish();
+  }
+
+  /**
+   * 텍스트 사전(dictionary.dic, extension.dic, compounds.dic)을 읽어 Trie 를 만든다.
+   */
+  static DoubleArrayTrie<WordEntry> loadTextDictionary() throws MorphException {
+
+    final DoubleArrayTrie.Builder<WordEntry> trie = new DoubleArrayTrie.Builder<WordEntry>();
+
+    LineHandler entries = new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        WordEntry entry = parseEntry(line);
+        if(entry!=null) trie.add(entry.getWord(), entry);
+      }
+    };
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_DICTIONARY), entries);
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_EXTENSION), entries);
+
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_COMPOUNDS), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        WordEntry entry = parseCompound(line);
+        if(entry!=null) trie.add(entry.getWord(), entry);
+      }
+    });
+
+    return trie.build();
+  }
+
+  /**
+   * parse a line of dictionary.dic or extension.dic, <code>word,features</code>.
+   * @return the entry, or null if the line is not an entry
+   */
+  private static WordEntry parseEntry(DictionaryReader.Line line) {
+    if(line.split(',')!=2) return null;
+    String features = line.trimmedField(1);
+    if(features.length()==6) features = features.substring(0,5)+"000"+features.substring(5);
+
+    return new WordEntry(line.trimmedField(0),features.toCharArray());
+  }
+
+  /**
+   * parse a line of compounds.dic, <code>word:compounds</code> or <code>word:compounds:features</code>.
+   * @return the entry, or null if the line is not an entry
+   */
+  private static WordEntry parseCompound(DictionaryReader.Line line) {
+    int count = line.split(':');
+    if(count!=3&&count!=2) return null;
+
+    WordEntry entry = null;
+    if(count==2)
+      entry = new WordEntry(line.trimmedField(0),"200000000X".toCharArray());
+    else
+      entry = new WordEntry(line.trimmedField(0),("200"+line.field(2)+"0X").toCharArray());
+
+    String nouns = line.field(1);
+    entry.setCompounds(compoundArrayToList(nouns, DictionaryReader.split(nouns, ',')));
+    return entry;
+  }
+
+  /**
+   * 사용자 사전의 줄들을 읽는다. 한 줄은 다음 중 하나이다.
+   * <pre>
+   *   단어,속성        dictionary.dic 과 같은 형식
+   *   단어:복합명사     compounds.dic 과 같은 형식 (단어:구성명사,구성명사[:속성])
+   *   단어            일반 명사
+   * </pre>
+   * 빈 줄과 '!' 로 시작하는 줄은 무시한다.
+   */
+  private static class UserEntries implements LineHandler {
+
+    private final List<WordEntry> entries = new ArrayList<WordEntry>();
+
+    public void line(DictionaryReader.Line line) {
+      line.trim();
+      if(line.length()>0&&line.charAt(0)=='\uFEFF') line.skip(1).trim();
+      if(line.length()==0||line.charAt(0)=='!') return;
+
+      WordEntry entry;
+      if(line.contains(':')) entry = parseCompound(line);
+      else if(line.contains(',')) entry = parseEntry(line);
+      else entry = new WordEntry(line.toString(), USER_NOUN.toCharArray());
+
+      if(entry!=null&&entry.getWord().length()>0) entries.add(entry);
+    }
+  }
+
+  /**
+   * user.dic 으로 지정된 사용자 사전을 읽는다.
+   * @return the entries, empty if no user dictionary is configured
+   */
+  private static List<WordEntry> loadUserEntries() throws MorphException {
+    String path = KoreanEnv.getInstance().getValue(KoreanEnv.FILE_USER_DICTIONARY);
+    if(path==null||path.trim().length()==0) return Collections.emptyList();
+    return Collections.unmodifiableList(readUserEntries(path.trim()));
+  }
+
+  /**
+   * read the user dictionary from a file, or from the class path when there is no such file.
+   */
+  static List<WordEntry> readUserEntries(String path) throws MorphException {
+    UserEntries entries = new UserEntries();
+    File file = new File(path);
+    if(file.isFile()) DictionaryReader.read(file, entries);
+    else DictionaryReader.read(path, entries);
+    return entries.entries;
+  }
+
+  /**
+   * read the user dictionary, see {@link DictionaryUtil#loadUserDictionary(java.io.Reader)} for the format.
+   */
+  static List<WordEntry> readUserEntries(Reader reader) throws MorphException {
+    UserEntries entries = new UserEntries();
+    try {
+      DictionaryReader.read(reader, entries);
+    } catch (IOException e) {
+      throw new MorphException("Fail to read the user dictionary.",e);
+    }
+    return entries.entries;
+  }
+
+  /**
+   * dictionary.bin 으로 지정된 사전 이미지를 찾는다. 파일 경로 또는 클래스패스 경로를 사용할 수 있다.
+   * @return the image file, or null if no image is configured
+   */
+  private static File getDictionaryImage() throws MorphException {
+    String path = KoreanEnv.getInstance().getValue(KoreanEnv.FILE_DICTIONARY_BIN);
+    if(path==null||path.trim().length()==0) return null;
+
+    File file = new File(path.trim());
+    if(file.isFile()) return file;
+
+    file = FileUtil.getClassLoaderFile(path.trim());
+    if(file==null) throw new MorphException("dictionary image must be a file : "+path);
+    return file;
+  }
+
+  private static Map<String, String> loadAbbreviations() throws MorphException {
+    final Map<String, String> abbreviations = new HashMap<String, String>();
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_ABBREV), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.split(':')!=2) return;
+        abbreviations.put(line.trimmedField(0), line.trimmedField(1));
+      }
+    });
+    return Collections.unmodifiableMap(abbreviations);
+  }
+
+  private static Map<String, WordEntry> loadUncompounds() throws MorphException {
+    final Map<String, WordEntry> uncompounds = new HashMap<String,WordEntry>();
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_UNCOMPOUNDS), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.split(':')!=2) return;
+        WordEntry entry = new WordEntry(line.trimmedField(0),"90000X".toCharArray());
+        String nouns = line.field(1);
+        entry.setCompounds(compoundArrayToList(nouns, DictionaryReader.split(nouns, ',')));
+        uncompounds.put(entry.getWord(), entry);
+      }
+    });
+    return Collections.unmodifiableMap(uncompounds);
+  }
+
+  private static Map<String, String> loadCJWords() throws MorphException {
+    final Map<String, String> cjwords = new HashMap<String, String>();
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_CJ), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.split(':')!=2) return;
+        cjwords.put(line.field(0), line.field(1));
+      }
+    });
+    return Collections.unmodifiableMap(cjwords);
+  }
+
+  /**
+   * read the josa, eomi, prefix or suffix dictionary. the first line is skipped.
+   * @param dic  the name of the dictionary
+   */
+  private static Map<String, String> readFile(String dic) throws MorphException {
+
+    final Map<String, String> map = new HashMap<String, String>();
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(dic), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.getIndex()==0) return;
+        String str = line.toString();
+        map.put(str.trim(), str);
+      }
+    });
+    return Collections.unmodifiableMap(map);
+  }
+
+  private static LazyResource<Map<String, String>> fileResource(final String dic) {
+    return new LazyResource<Map<String, String>>() {
+      protected Map<String, String> load() throws MorphException {
+        return readFile(dic);
+      }
+    };
+  }
+
+  private static LazyResource<DoubleArrayTrie<String>> suffixResource(final LazyResource<Map<String, String>> words) {
+    return new LazyResource<DoubleArrayTrie<String>>() {
+      protected DoubleArrayTrie<String> load() throws MorphException {
+        return buildSuffixes(words.get());
+      }
+    };
+  }
+
+  /**
+   * build the trie of the reversed keys, whose values are the keys themselves.
+   */
+  private static DoubleArrayTrie<String> buildSuffixes(Map<String, String> map) {
+    DoubleArrayTrie.Builder<String> builder = new DoubleArrayTrie.Builder<String>();
+    for(String key : map.keySet()) {
+      if(key.length()==0) continue;
+      builder.add(new StringBuilder(key).reverse().toString(), key);
+    }
+    return builder.build();
+  }
+
+  private static List<CompoundEntry> compoundArrayToList(String source, String[] arr) {
+    List<CompoundEntry> list = new ArrayList<CompoundEntry>();
+    for(String str: arr) {
+      CompoundEntry ce = new CompoundEntry(str);
+      ce.setOffset(source.indexOf(str));
+      list.add(ce);
+    }
+    return list;
+  }
+
+  /**
+   * merges the added entries with the entries of the dictionary, both in key order.
+   * an added entry replaces the entry of the dictionary with the same key.
+   */
+  private static class MergedIterator implements Iterator<WordEntry> {
+
+    private final Iterator<WordEntry> added;
+
+    private final Iterator<WordEntry> image;
+
+    private WordEntry nextAdded;
+
+    private WordEntry nextImage;
+
+    MergedIterator(Iterator<WordEntry> added, Iterator<WordEntry> image) {
+      this.added = added;
+      this.image = image;
+      this.nextAdded = added.hasNext() ? added.next() : null;
+      this.nextImage = image.hasNext() ? image.next() : null;
+    }
+
+    public boolean hasNext() {
+      return nextAdded!=null||nextImage!=null;
+    }
+
+    public WordEntry next() {
+      if(!hasNext()) throw new NoSuchElementException();
+
+      int cmp;
+      if(nextAdded==null) cmp = 1;
+      else if(nextImage==null) cmp = -1;
+      else cmp = DoubleArrayTrie.canonicalCase(nextAdded.getWord())
+          .compareTo(DoubleArrayTrie.canonicalCase(nextImage.getWord()));
+
+      WordEntry entry;
+      if(cmp>0) {
+        entry = nextImage;
+        nextImage = image.hasNext() ? image.next() : null;
+      } else {
+        entry = nextAdded;
+        nextAdded = added.hasNext() ? added.next() : null;
+        if(cmp==0) nextImage = image.hasNext() ? image.next() : null;
+      }
+      return entry;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove from this iterator");
+    }
+  }
+
+  /**
+   * merges the matches of the added entries, collected first, into the matches of the dictionary by the end position.
+   * an added entry replaces the entry of the dictionary with the same end.
+   */
+  private static class MergedMatches implements PrefixMatchHandler<WordEntry> {
+
+    private final PrefixMatchHandler<WordEntry> handler;
+
+    private final List<Integer> ends = new ArrayList<Integer>();
+
+    private final List<WordEntry> entries = new ArrayList<WordEntry>();
+
+    private int next = 0;
+
+    final PrefixMatchHandler<WordEntry> added = new PrefixMatchHandler<WordEntry>() {
+      public void match(int end, WordEntry value) {
+        ends.add(end);
+        entries.add(value);
+      }
+    };
+
+    MergedMatches(PrefixMatchHandler<WordEntry> handler) {
+      this.handler = handler;
+    }
+
+    public void match(int end, WordEntry value) {
+      while(next<ends.size()&&ends.get(next)<end) {
+        handler.match(ends.get(next), entries.get(next));
+        next++;
+      }
+      if(next<ends.size()&&ends.get(next)==end) {
+        handler.match(end, entries.get(next));
+        next++;
+        return;
+      }
+      handler.match(end, value);
+    }
+
+    void finish() {
+      while(next<ends.size()) {
+        handler.match(ends.get(next), entries.get(next));
+        next++;
+      }
+    }
+  }
+}
@@ -17,113 +17,256 @@ package org.apache.lucene.analysis.ko.utils;
  * limitations under the License.
  */
 
-import org.apache.lucene.analysis.ko.morph.CompoundEntry;
 import org.apache.lucene.analysis.ko.morph.MorphException;
 import org.apache.lucene.analysis.ko.morph.WordEntry;
+import org.apache.lucene.analysis.ko.tagging.Tagger;
 
-import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
+/**
+ * 사전 검색 기능을 제공한다.
+ * <p>
+ * All the dictionaries are held by one immutable snapshot, published through a volatile field.
+ * Lookups only read that field and take no lock, so any number of {@link org.apache.lucene.analysis.ko.morph.MorphAnalyzer}
+ * instances may use this class concurrently. Loading the dictionary and adding entries are serialized
+ * and publish a new snapshot; a lookup that is already running keeps using the snapshot it started with.
+ * <p>
+ * The user dictionary is a layer over the dictionary which can be reloaded while the analysis is running.
+ * The new layer is built aside and then published at once, so a lookup sees either the old user
+ * dictionary or the new one.
+ * <p>
+ * Each resource is loaded when it is first used. {@link #warmUp(Executor)} loads them beforehand.
+ */
 public class DictionaryUtil {
   
-  private static Trie<String,WordEntry> dictionary;
-  
-  private static HashMap<String, String> josas;
-  
-  private static HashMap<String, String> eomis;
+  /**
+   * the resources loaded by {@link #warmUp(Executor, String...)}, named by their keys in korean.properties.
+   * dictionary.dic stands for the dictionary made of dictionary.dic, extension.dic and compounds.dic.
+   */
+  public static final List<String> RESOURCES = Collections.unmodifiableList(Arrays.asList(
+      KoreanEnv.FILE_DICTIONARY, KoreanEnv.FILE_JOSA, KoreanEnv.FILE_EOMI, KoreanEnv.FILE_PREFIX,
+      KoreanEnv.FILE_SUFFIX, KoreanEnv.FILE_UNCOMPOUNDS, KoreanEnv.FILE_ABBREV, KoreanEnv.FILE_CJ,
+      KoreanEnv.FILE_SYLLABLE_FEATURE, KoreanEnv.FILE_HANJA, KoreanEnv.FILE_TAGGER));
   
-  private static HashMap<String, String> prefixs;
+  private static volatile DictionarySnapshot snapshot;
   
-  private static HashMap<String, String> suffixs;
+  /**
+   * incremented after a new snapshot is published, see {@link #getVersion()}.
+   */
+  private static volatile long version;
   
-  private static HashMap<String,WordEntry> uncompounds;
+  /**
+   * @return the current snapshot, loaded on the first call
+   */
+  private static DictionarySnapshot snapshot() throws MorphException {
+    DictionarySnapshot current = snapshot;
+    if(current==null) {
+      synchronized(DictionaryUtil.class) {
+        current = snapshot;
+        if(current==null) {
+          current = DictionarySnapshot.load();
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
   
-  private static HashMap<String, String> cjwords;
+  /**
+   * 사전을 로드한다. 
+   * dictionary.bin 이 지정되어 있으면 컴파일된 사전 이미지를 매핑하고, 그렇지 않으면 텍스트 사전을 읽는다.
+   * the entries added before are discarded, and the user dictionary configured as user.dic is read again.
+   */
+  public synchronized static void loadDictionary() throws MorphException {
+    snapshot = DictionarySnapshot.load();
+    version++;
+  }
   
-  private static HashMap<String, String> abbreviations;
+  /**
+   * load the resources listed by warmup.resources in korean.properties, or all the {@link #RESOURCES}
+   * if it is not set. see {@link #warmUp(Executor, String...)}.
+   */
+  public static Map<String, Long> warmUp(Executor executor) throws MorphException {
+    String names = KoreanEnv.getInstance().getValue(KoreanEnv.WARMUP_RESOURCES);
+    if(names==null||names.trim().length()==0) 
+      return warmUp(executor, RESOURCES.toArray(new String[RESOURCES.size()]));
+    return warmUp(executor, names.trim().split("[,\\s]+"));
+  }
   
   /**
-   * 사전을 로드한다.
+   * 사전을 미리 읽는다. each resource is loaded by a task of the executor, so they are loaded concurrently
+   * when the executor has several threads. the resources which are not loaded here are still loaded
+   * on their first use.
+   * @param executor  runs the loading tasks
+   * @param names  the resources to load, some of {@link #RESOURCES}
+   * @return the milliseconds spent on each resource, in the given order. a resource which has
+   *         already been loaded takes no time.
+   * @throws MorphException when a resource is unknown or can not be loaded
    */
-  public synchronized static void loadDictionary() throws MorphException {
-    
-    dictionary = new Trie<String, WordEntry>(true);
-    List<String> strList = null;
-    List<String> compounds = null;
-    List<String> abbrevs = null;
-    try {
-      strList = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_DICTIONARY),"UTF-8");
-      strList.addAll(FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_EXTENSION),"UTF-8"));
-      compounds = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_COMPOUNDS),"UTF-8"); 
-      abbrevs = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_ABBREV),"UTF-8"); 
-    } catch (IOException e) {      
-      new MorphException(e.getMessage(),e);
-    } catch (Exception e) {
-      new MorphException(e.getMessage(),e);
+  public static Map<String, Long> warmUp(Executor executor, String... names) throws MorphException {
+    for(String name : names) {
+      if(!RESOURCES.contains(name)) throw new MorphException("unknown resource : "+name);
     }
-    if(strList==null) throw new MorphException("dictionary is null");;
     
-    for(String str:strList) {
-      String[] infos = str.split("[,]+");
-      if(infos.length!=2) continue;
-      infos[1] = infos[1].trim();
-      if(infos[1].length()==6) infos[1] = infos[1].substring(0,5)+"000"+infos[1].substring(5);
-      
-      WordEntry entry = new WordEntry(infos[0].trim(),infos[1].trim().toCharArray());
-      dictionary.add(entry.getWord(), entry);
+    final DictionarySnapshot current = snapshot();
+    List<FutureTask<Long>> tasks = new ArrayList<FutureTask<Long>>(names.length);
+    for(final String name : names) {
+      FutureTask<Long> task = new FutureTask<Long>(new Callable<Long>() {
+        public Long call() throws Exception {
+          long start = System.nanoTime();
+          loadResource(current, name);
+          return (System.nanoTime()-start)/1000000;
+        }
+      });
+      executor.execute(task);
+      tasks.add(task);
     }
     
-    for(String compound: compounds) 
-    {    
-      String[] infos = compound.split("[:]+");
-      if(infos.length!=3&&infos.length!=2) continue;
-      
-      WordEntry entry = null;
-      if(infos.length==2) 
-        entry = new WordEntry(infos[0].trim(),"200000000X".toCharArray());
-      else 
-        entry = new WordEntry(infos[0].trim(),("200"+infos[2]+"0X").toCharArray());
-      
-      entry.setCompounds(compoundArrayToList(infos[1], infos[1].split("[,]+")));
-      dictionary.add(entry.getWord(), entry);
+    Map<String, Long> times = new LinkedHashMap<String, Long>();
+    for(int i=0;i<names.length;i++) {
+      try {
+        times.put(names[i], tasks.get(i).get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MorphException("interrupted while loading "+names[i],e);
+      } catch (ExecutionException e) {
+        throw new MorphException("Fail to load "+names[i],e.getCause());
+      }
     }
+    return times;
+  }
+  
+  private static void loadResource(DictionarySnapshot current, String name) throws MorphException {
+    if(current.loadResource(name)) return;
     
-    abbreviations = new HashMap();
-    
-    for(String abbrev: abbrevs) 
-    {    
-      String[] infos = abbrev.split("[:]+");
-      if(infos.length!=2) continue;      
-      abbreviations.put(infos[0].trim(), infos[1].trim());
+    if(KoreanEnv.FILE_SYLLABLE_FEATURE.equals(name)) SyllableUtil.warmUp();
+    else if(KoreanEnv.FILE_HANJA.equals(name)) HanjaUtils.getTable();
+    else if(KoreanEnv.FILE_TAGGER.equals(name)) Tagger.warmUp();
+  }
+  
+  /**
+   * The version of the dictionary, which changes whenever the dictionary is loaded or changed.
+   * Results of the analysis made with an older version, such as the ones in an
+   * {@link org.apache.lucene.analysis.ko.morph.AnalysisCache}, may be out of date.
+   */
+  public static long getVersion() {
+    return version;
+  }
+  
+  /**
+   * 사용자 사전을 다시 읽는다. the entries of the former user dictionary are removed, the entries
+   * added by {@link #addEntries(List)} are kept and still take precedence.
+   * see {@link #loadUserDictionary(Reader)} for the format.
+   * @param path  the file, or the path in the class path
+   * @throws MorphException when the user dictionary can not be read
+   */
+  public static void loadUserDictionary(String path) throws MorphException {
+    setUserEntries(DictionarySnapshot.readUserEntries(path));
+  }
+  
+  /**
+   * 사용자 사전을 다시 읽는다. A line is an entry of dictionary.dic (<code>word,features</code>),
+   * an entry of compounds.dic (<code>word:noun,noun[:features]</code>) or a single word, which is
+   * added as a noun. Empty lines and lines starting with '!' are skipped.
+   * @param reader  the user dictionary, not closed by this method
+   * @throws MorphException when the user dictionary can not be read
+   */
+  public static void loadUserDictionary(Reader reader) throws MorphException {
+    setUserEntries(DictionarySnapshot.readUserEntries(reader));
+  }
+  
+  /**
+   * remove all the entries of the user dictionary.
+   */
+  public static void clearUserDictionary() throws MorphException {
+    setUserEntries(Collections.<WordEntry>emptyList());
+  }
+  
+  /**
+   * @return the entries of the current user dictionary
+   */
+  public static List<WordEntry> getUserEntries() throws MorphException {
+    return snapshot().getUserEntries();
+  }
+  
+  /**
+   * build the snapshot with the new user dictionary without holding the lock, and publish it
+   * only if no other change has been published meanwhile.
+   */
+  private static void setUserEntries(List<WordEntry> entries) throws MorphException {
+    while(true) {
+      DictionarySnapshot current = snapshot();
+      DictionarySnapshot next = current.withUserEntries(entries);
+      synchronized(DictionaryUtil.class) {
+        if(snapshot==current) {
+          snapshot = next;
+          version++;
+          return;
+        }
+      }
     }
   }
 
-  @SuppressWarnings({"rawtypes","unchecked"})
   public static Iterator<WordEntry> findWithPrefix(String prefix) throws MorphException {
-    if(dictionary==null) loadDictionary();
-    return dictionary.getPrefixedBy(prefix);
+    return snapshot().getPrefixedBy(prefix);
+  }
+
+  /**
+   * 주어진 위치에서 시작하는 모든 사전 단어를 찾는다.
+   * text[offset,limit) 의 접두어가 되는 단어를 짧은 것부터 한번의 탐색으로 handler 에 전달한다.
+   * @param text  the text to search
+   * @param offset  the start position
+   * @param limit  the end position (exclusive) of the search
+   * @param handler  receives the end position and the entry of every match
+   * @throws MorphException throw exception
+   */
+  public static void commonPrefixSearch(CharSequence text, int offset, int limit, PrefixMatchHandler<WordEntry> handler) throws MorphException {
+    snapshot().commonPrefixSearch(text, offset, limit, handler);
   }
 
   public static WordEntry getWord(String key)  {    
    
 	try {
-		if(dictionary==null) loadDictionary();
+		DictionarySnapshot current = snapshot();
 	    if(key.length()==0) return null;
 	    
-	    return (WordEntry)dictionary.get(key);
+	    return current.get(key);
 	} catch (MorphException e) {
 		throw new RuntimeException(e);
 	}
 
   }
 
+  /**
+   * add an entry to the dictionary. it replaces the entry with the same word.
+   * every call copies the added entries and rebuilds their index under the lock, so adding n entries one
+   * by one takes time quadratic in n. use {@link #addEntries(List)} to add many entries at once.
+   */
   public static void addEntry(WordEntry entry) {
+    addEntries(Collections.singletonList(entry));
+  }
+
+  /**
+   * add the entries to the dictionary at once. they replace the entries with the same word.
+   */
+  public static void addEntries(List<WordEntry> entries) {
       try {
-           if(dictionary==null) loadDictionary();
-           dictionary.add(entry.getWord(), entry);
+           snapshot(); // make sure the dictionary is loaded
+           synchronized(DictionaryUtil.class) {
+             snapshot = snapshot.withEntries(entries);
+             version++;
+           }
       } catch (MorphException e) {
           throw new RuntimeException(e);
       }
@@ -162,10 +305,17 @@ public class DictionaryUtil {
     WordEntry entry = getWord(key);
     if(entry==null) return null;
 
-    if(entry.getFeature(WordEntry.IDX_NOUN)=='1' || entry.getFeature(WordEntry.IDX_NOUN)=='2') return entry;
+    if(isAllNoun(entry)) return entry;
     return null;
   }
   
+  /**
+   * @return whether the entry is a noun, including compound noun
+   */
+  public static boolean isAllNoun(WordEntry entry) {
+    return entry.getFeature(WordEntry.IDX_NOUN)=='1' || entry.getFeature(WordEntry.IDX_NOUN)=='2';
+  }
+  
   public static WordEntry getVerb(String key) throws MorphException {
     
     WordEntry entry = getWord(key);  
@@ -219,87 +369,48 @@ public class DictionaryUtil {
   }
   
   public static String getAbbrevMorph(String key) throws MorphException {
-    if(abbreviations==null) loadDictionary();    
-    return abbreviations.get(key);
+    return snapshot().abbreviations.get().get(key);
   }
   
-  public synchronized static WordEntry getUncompound(String key) throws MorphException {
-    
-    try {
-      if(uncompounds==null) {
-        uncompounds = new HashMap<String,WordEntry>();
-        List<String> lines = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_UNCOMPOUNDS),"UTF-8");  
-        for(String compound: lines) {    
-          String[] infos = compound.split("[:]+");
-          if(infos.length!=2) continue;
-          WordEntry entry = new WordEntry(infos[0].trim(),"90000X".toCharArray());
-          entry.setCompounds(compoundArrayToList(infos[1], infos[1].split("[,]+")));
-          uncompounds.put(entry.getWord(), entry);
-        }      
-      }  
-    }catch(Exception e) {
-      throw new MorphException(e);
-    }
-    return uncompounds.get(key);
+  public static WordEntry getUncompound(String key) throws MorphException {
+    return snapshot().uncompounds.get().get(key);
   }
   
-  public synchronized static String getCJWord(String key) throws MorphException {
-    
-    try {
-      if(cjwords==null) {
-        cjwords = new HashMap<String, String>();
-        List<String> lines = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_CJ),"UTF-8");  
-        for(String cj: lines) {    
-          String[] infos = cj.split("[:]+");
-          if(infos.length!=2) continue;
-          cjwords.put(infos[0], infos[1]);
-        }      
-      }  
-    }catch(Exception e) {
-      throw new MorphException(e);
-    }
-    return cjwords.get(key);
-    
+  public static String getCJWord(String key) throws MorphException {
+    return snapshot().cjwords.get().get(key);
   }
   
   public static boolean existJosa(String str) throws MorphException {
-    if(josas==null) {
-      josas = new HashMap<String, String>();
-      readFile(josas,KoreanEnv.FILE_JOSA);
-    }  
-    if(josas.get(str)==null) return false;
-    else return true;
+    return snapshot().josas.get().containsKey(str);
   }
   
   public static boolean existEomi(String str)  throws MorphException {
-    if(eomis==null) {
-      eomis = new HashMap<String, String>();
-      readFile(eomis,KoreanEnv.FILE_EOMI);
-    }
-
-    if(eomis.get(str)==null) return false;
-    else return true;
+    return snapshot().eomis.get().containsKey(str);
   }
   
+  /**
+   * Finds every josa that ends the text, in one backward walk over the characters.
+   * josas[i] is set to text[i,text.length()) when it is a josa, the other elements are left alone.
+   * @param josas an array as long as the text
+   * @return the number of josas found
+   */
+  public static int findJosas(CharSequence text, String[] josas) throws MorphException {
+    return snapshot().josaSuffixes.get().commonSuffixSearch(text, 0, text.length(), josas);
+  }
+
+  /**
+   * Finds every eomi that ends the text, the same way as {@link #findJosas(CharSequence, String[])}.
+   */
+  public static int findEomis(CharSequence text, String[] eomis) throws MorphException {
+    return snapshot().eomiSuffixes.get().commonSuffixSearch(text, 0, text.length(), eomis);
+  }
+
   public static boolean existPrefix(String str)  throws MorphException {
-    if(prefixs==null) {
-      prefixs = new HashMap<String, String>();
-      readFile(prefixs,KoreanEnv.FILE_PREFIX);
-    }
-    
-    if(prefixs.get(str)==null) return false;
-    else return true;
+    return snapshot().prefixs.get().containsKey(str);
   }
   
   public static boolean existSuffix(String str)  throws MorphException {
-    if(suffixs==null) {
-      suffixs = new HashMap<String, String>();
-      readFile(suffixs,KoreanEnv.FILE_SUFFIX);
-    }
-
-    if(suffixs.get(str)!=null) return true;
-    
-    return false;
+    return snapshot().suffixs.get().containsKey(str);
   }
   
   /**
@@ -320,36 +431,4 @@ public class DictionaryUtil {
     return null;
     
   }
-  
-  /**
-   * 
-   * @param map map
-   * @param dic  1: josa, 2: eomi
-   * @throws MorphException excepton
-   */
-  private static synchronized void readFile(HashMap<String, String> map, String dic) throws MorphException {    
-    
-    String path = KoreanEnv.getInstance().getValue(dic);
-
-    try{
-      List<String> line = FileUtil.readLines(path,"UTF-8");
-      for(int i=1;i<line.size();i++) {
-        map.put(line.get(i).trim(), line.get(i));
-      }
-    }catch(IOException e) {
-      throw new MorphException(e.getMessage(),e);
-    } catch (Exception e) {
-      throw new MorphException(e.getMessage(),e);
-    }
-  }
-  
-  private static List<CompoundEntry> compoundArrayToList(String source, String[] arr) {
-    List<CompoundEntry> list = new ArrayList<CompoundEntry>();
-    for(String str: arr) {
-      CompoundEntry ce = new CompoundEntry(str);
-      ce.setOffset(source.indexOf(str));
-      list.add(ce);
-    }
-    return list;
-  }
 }
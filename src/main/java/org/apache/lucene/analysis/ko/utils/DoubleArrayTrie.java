@@ -0,0 +1,436 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only double-array trie with the same lookup contract as an ignore-case {@link Trie}:
+ * exact {@link #get(CharSequence)} and key-ordered {@link #getPrefixedBy(CharSequence)}.
+ * <p>
+ * Every node is a slot of the parallel <code>base</code> / <code>check</code> arrays. The child
+ * of node <code>s</code> for the character code <code>c</code> is the slot <code>t = base[s]+c</code>,
+ * valid when <code>check[t]==s</code>. The code 0 marks the end of a key; the base of that slot
+ * holds <code>-(value index+1)</code>. Characters are remapped to dense codes through a table
+ * of 256 character pages, only the pages with a character of a key are allocated. A character
+ * without a code is case folded and looked up again, so a lookup walks the arrays without allocating.
+ * <p>
+ * The values are kept in key order and each node remembers the range of keys below it, so the
+ * prefix iteration is a plain walk over an array slice.
+ * <p>
+ * Instances are built once with {@link Builder} and never change afterwards, so they can be
+ * shared between threads.
+ */
+public class DoubleArrayTrie<V> {
+
+  private static final int END = 0;
+
+  private static final int PAGE_BITS = 8;
+
+  private static final int PAGE_SIZE = 1<<PAGE_BITS;
+
+  /**
+   * the page of the characters that do not occur in any key, shared and never changed.
+   */
+  private static final char[] NO_CODES = new char[PAGE_SIZE];
+
+  /**
+   * character to code by pages of 256 characters, up to the page of the last character of the keys.
+   * 0 means the character does not occur in any key.
+   */
+  private final char[][] codes;
+
+  private final int[] base;
+
+  private final int[] check;
+
+  /**
+   * first and last (exclusive) value index of the keys below each node
+   */
+  private final int[] lower;
+
+  private final int[] upper;
+
+  private final Object[] values;
+
+  private DoubleArrayTrie(char[][] codes, int[] base, int[] check, int[] lower, int[] upper, Object[] values) {
+    this.codes = codes;
+    this.base = base;
+    this.check = check;
+    this.lower = lower;
+    this.upper = upper;
+    this.values = values;
+  }
+
+  /**
+   * @return the code of the character or of its case folded form, 0 if none occurs in any key
+   */
+  private int code(char c) {
+    int code = code(codes, c);
+    if(code==0) {
+      char f = fold(c);
+      if(f!=c) code = code(codes, f);
+    }
+    return code;
+  }
+
+  private static int code(char[][] codes, char c) {
+    int page = c>>>PAGE_BITS;
+    return page<codes.length ? codes[page][c&(PAGE_SIZE-1)] : 0;
+  }
+
+  /**
+   * Returns the case folded character, the per character version of {@link Trie#canonicalCase(String)}.
+   */
+  public static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /**
+   * Returns the canonical version of the given string, the keys of the trie are stored in this form.
+   */
+  public static String canonicalCase(String s) {
+    char[] chs = null;
+    for(int i=0;i<s.length();i++) {
+      char c = s.charAt(i);
+      char f = fold(c);
+      if(c==f) continue;
+      if(chs==null) chs = s.toCharArray();
+      chs[i] = f;
+    }
+    return chs==null ? s : new String(chs);
+  }
+
+  /**
+   * @return the number of keys
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value associated with the given key, or null if none.
+   */
+  public V get(CharSequence key) {
+    return get(key, 0, key.length());
+  }
+
+  /**
+   * Same as get(key.subSequence(start, end)), without building the sub sequence.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(CharSequence key, int start, int end) {
+    int s = walk(key, start, end);
+    if(s<0) return null;
+    int t = base[s]+END;
+    if(t>=check.length||check[t]!=s) return null;
+    return (V)values[-base[t]-1];
+  }
+
+  /**
+   * Returns the values whose key starts with the given prefix, in key order.
+   */
+  public Iterator<V> getPrefixedBy(CharSequence prefix) {
+    int s = walk(prefix, 0, prefix.length());
+    if(s<0) return new ValueIterator(0, 0);
+    return new ValueIterator(lower[s], upper[s]);
+  }
+
+  /**
+   * Reports every key that is a prefix of text[offset,limit), in one walk from the root.
+   */
+  @SuppressWarnings("unchecked")
+  public void commonPrefixSearch(CharSequence text, int offset, int limit, PrefixMatchHandler<V> handler) {
+    int s = 0;
+    for(int i=offset;i<limit;i++) {
+      int c = code(text.charAt(i));
+      if(c==0) return;
+      int t = base[s]+c;
+      if(t>=check.length||check[t]!=s) return;
+      s = t;
+
+      t = base[s]+END;
+      if(t<check.length&&check[t]==s) handler.match(i+1, (V)values[-base[t]-1]);
+    }
+  }
+
+  /**
+   * Reports every key that is a suffix of text[offset,limit), in one walk from the root backwards
+   * from limit. The trie must be built from the reversed keys.
+   * found[i] is set to the value of the key text[i,limit), the other elements are left alone.
+   * @return the number of keys found
+   */
+  @SuppressWarnings("unchecked")
+  public int commonSuffixSearch(CharSequence text, int offset, int limit, V[] found) {
+    int count = 0;
+    int s = 0;
+    for(int i=limit-1;i>=offset;i--) {
+      int c = code(text.charAt(i));
+      if(c==0) break;
+      int t = base[s]+c;
+      if(t>=check.length||check[t]!=s) break;
+      s = t;
+
+      t = base[s]+END;
+      if(t<check.length&&check[t]==s) {
+        found[i] = (V)values[-base[t]-1];
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * follow the characters from the root.
+   * @return the node reached, or -1 if there is none
+   */
+  private int walk(CharSequence key, int start, int end) {
+    int s = 0;
+    for(int i=start;i<end;i++) {
+      int c = code(key.charAt(i));
+      if(c==0) return -1;
+      int t = base[s]+c;
+      if(t>=check.length||check[t]!=s) return -1;
+      s = t;
+    }
+    return s;
+  }
+
+  private class ValueIterator implements Iterator<V> {
+
+    private int idx;
+
+    private final int upper;
+
+    ValueIterator(int lower, int upper) {
+      this.idx = lower;
+      this.upper = upper;
+    }
+
+    public boolean hasNext() {
+      return idx<upper;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V next() {
+      if(idx>=upper) throw new NoSuchElementException();
+      return (V)values[idx++];
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove from this iterator");
+    }
+  }
+
+  /**
+   * Collects the keys and builds the trie. A key added twice keeps the last value,
+   * like {@link Trie#add(String, Object)}.
+   */
+  public static class Builder<V> {
+
+    private final HashMap<String,V> entries = new HashMap<String,V>();
+
+    public Builder<V> add(String key, V value) {
+      entries.put(canonicalCase(key), value);
+      return this;
+    }
+
+    public DoubleArrayTrie<V> build() {
+      return new Construction<V>(entries).build();
+    }
+  }
+
+  private static class Construction<V> {
+
+    /**
+     * the check of the root, which is the child of no node. a free slot has the check -1.
+     */
+    private static final int NO_PARENT = -2;
+
+    private final String[] keys;
+
+    private final Object[] values;
+
+    private final char[][] codes;
+
+    private int[] base;
+
+    private int[] check;
+
+    private int[] lower;
+
+    private int[] upper;
+
+    /**
+     * skip[i]==i for a free slot, otherwise a later slot to continue the search for a free one.
+     */
+    private int[] skip;
+
+    private int size = 1;
+
+    Construction(Map<String, ? extends V> entries) {
+      keys = entries.keySet().toArray(new String[entries.size()]);
+      Arrays.sort(keys);
+      values = new Object[keys.length];
+      for(int i=0;i<keys.length;i++) values[i] = entries.get(keys[i]);
+
+      // mark the characters of the keys, the keys are already case folded.
+      int pages = 0;
+      for(String key : keys) {
+        for(int j=0;j<key.length();j++) pages = Math.max(pages, (key.charAt(j)>>>PAGE_BITS)+1);
+      }
+      codes = new char[pages][];
+      Arrays.fill(codes, NO_CODES);
+      for(String key : keys) {
+        for(int j=0;j<key.length();j++) {
+          char c = key.charAt(j);
+          char[] page = codes[c>>>PAGE_BITS];
+          if(page==NO_CODES) page = codes[c>>>PAGE_BITS] = new char[PAGE_SIZE];
+          page[c&(PAGE_SIZE-1)] = 1;
+        }
+      }
+      // codes follow the character order, so that the key order is also the order of the codes.
+      char code = 1;
+      for(char[] page : codes) {
+        if(page==NO_CODES) continue;
+        for(int j=0;j<PAGE_SIZE;j++) {
+          if(page[j]!=0) page[j] = code++;
+        }
+      }
+
+      int capacity = 1024;
+      for(String key : keys) capacity += key.length();
+      base = new int[capacity];
+      check = new int[capacity];
+      lower = new int[capacity];
+      upper = new int[capacity];
+      Arrays.fill(check, -1);
+      skip = new int[capacity];
+      for(int j=0;j<capacity;j++) skip[j] = j;
+    }
+
+    DoubleArrayTrie<V> build() {
+      occupy(0, NO_PARENT);
+      if(keys.length>0) insert(0, 0, keys.length, 0);
+      return new DoubleArrayTrie<V>(codes,
+          Arrays.copyOf(base, size), Arrays.copyOf(check, size),
+          Arrays.copyOf(lower, size), Arrays.copyOf(upper, size), values);
+    }
+
+    private int code(String key, int depth) {
+      return depth==key.length() ? END : DoubleArrayTrie.code(codes, key.charAt(depth));
+    }
+
+    /**
+     * place the children of the node s, which holds the keys [from,to) that share the first depth characters.
+     */
+    private void insert(int s, int from, int to, int depth) {
+      lower[s] = from;
+      upper[s] = to;
+
+      // distinct child codes in ascending order, the keys are sorted.
+      int[] children = new int[to-from];
+      int[] starts = new int[to-from+1];
+      int n = 0;
+      for(int i=from;i<to;i++) {
+        int c = code(keys[i], depth);
+        if(n==0||children[n-1]!=c) {
+          children[n] = c;
+          starts[n] = i;
+          n++;
+        }
+      }
+      starts[n] = to;
+
+      int b = findBase(children, n);
+      base[s] = b;
+      for(int i=0;i<n;i++) {
+        occupy(b+children[i], s);
+      }
+      if(b+children[n-1]>=size) size = b+children[n-1]+1;
+
+      for(int i=0;i<n;i++) {
+        int t = b+children[i];
+        if(children[i]==END) {
+          base[t] = -(starts[i]+1);
+          lower[t] = starts[i];
+          upper[t] = starts[i]+1;
+        } else {
+          insert(t, starts[i], starts[i+1], depth+1);
+        }
+      }
+    }
+
+    private int findBase(int[] children, int n) {
+      int pos = firstFree(children[0]+1);
+      while(true) {
+        ensure(pos+children[n-1]-children[0]+1);
+        int b = pos-children[0];
+        boolean free = true;
+        for(int i=1;i<n;i++) {
+          if(check[b+children[i]]!=-1) {
+            free = false;
+            break;
+          }
+        }
+        if(free) return b;
+        pos = firstFree(pos+1);
+      }
+    }
+
+    /**
+     * the first free slot at or after pos. the used slots are skipped through {@link #skip}, with path compression.
+     */
+    private int firstFree(int pos) {
+      ensure(pos+1);
+      int root = pos;
+      while(skip[root]!=root) {
+        root = skip[root];
+        ensure(root+1);
+      }
+      while(skip[pos]!=root&&pos!=root) {
+        int next = skip[pos];
+        skip[pos] = root;
+        pos = next;
+      }
+      return root;
+    }
+
+    private void occupy(int slot, int parent) {
+      check[slot] = parent;
+      skip[slot] = slot+1;
+    }
+
+    private void ensure(int capacity) {
+      if(capacity<=check.length) return;
+      int length = Math.max(capacity, check.length+(check.length>>1));
+      base = Arrays.copyOf(base, length);
+      lower = Arrays.copyOf(lower, length);
+      upper = Arrays.copyOf(upper, length);
+      int old = check.length;
+      check = Arrays.copyOf(check, length);
+      Arrays.fill(check, old, length, -1);
+      skip = Arrays.copyOf(skip, length);
+      for(int i=old;i<length;i++) skip[i] = i;
+    }
+  }
+}
@@ -42,58 +42,61 @@ public class EomiUtil {
     
     String stem;
     String eomi;
-    char[] efeature;
+    char ech;
+    
+    // eomis[i] is the eomi term[i,term.length()), found in one backward walk
+    String[] eomis = new String[term.length()];
+    DictionaryUtil.findEomis(term, eomis);
     
     for(int i=term.length();i>0;i--) {
       
-      stem = term.substring(0,i);      
-    
       if(i!=term.length()) {
-        eomi = term.substring(i);
-        efeature  = SyllableUtil.getFeature(eomi.charAt(0));        
+        eomi = eomis[i];
+        ech = term.charAt(i);
       } else {
-        efeature = SyllableUtil.getFeature(stem.charAt(i-1));
+        ech = term.charAt(i-1);
         eomi="";
       }
 
-      if(SyllableUtil.isAlpanumeric(stem.charAt(i-1))) break;
+      if(SyllableUtil.isAlpanumeric(term.charAt(i-1))) break;
       
-      char[] jasos = MorphUtil.decompose(stem.charAt(i-1));
+      char last = term.charAt(i-1);
+      char jung = MorphUtil.jungseong(last);
+      char jong = MorphUtil.jongseong(last);
+      stem = eomi==null ? null : term.substring(0,i);
   
-      if(!"".equals(eomi)&&!DictionaryUtil.existEomi(eomi)) {
+      if(eomi==null) {
         // do not anything.
-      } else if(jasos.length>2&&
-          (jasos[2]=='ㄴ'||jasos[2]=='ㄹ'||jasos[2]=='ㅁ'||jasos[2]=='ㅂ')&&
-          DictionaryUtil.combineAndEomiCheck(jasos[2], eomi)!=null) {
+      } else if((jong=='ㄴ'||jong=='ㄹ'||jong=='ㅁ'||jong=='ㅂ')&&
+          DictionaryUtil.combineAndEomiCheck(jong, eomi)!=null) {
         result[0] = Character.toString(MorphUtil.makeChar(stem.charAt(i-1), 0));
         if(i!=0) result[0] = stem.substring(0,i-1)+result[0];
-        result[1] = Character.toString(jasos[2]);
+        result[1] = Character.toString(jong);
       }else if(i>0&&(stem.endsWith("하")&&"여".equals(eomi))||
           (stem.endsWith("가")&&"거라".equals(eomi))||
           (stem.endsWith("오")&&"너라".equals(eomi))) {
         result[0] = stem;
         result[1] = eomi;      
-      }else if(jasos.length==2&&(!stem.endsWith("아")&&!stem.endsWith("어"))&&
-          (jasos[1]=='ㅏ'||jasos[1]=='ㅓ'||jasos[1]=='ㅔ'||jasos[1]=='ㅐ')&&
+      }else if(jong==0&&(!stem.endsWith("아")&&!stem.endsWith("어"))&&
+          (jung=='ㅏ'||jung=='ㅓ'||jung=='ㅔ'||jung=='ㅐ')&&
           (DictionaryUtil.combineAndEomiCheck('어', eomi)!=null)) {    
-        char[] chs = MorphUtil.decompose(stem.charAt(stem.length()-1));        
         result[0] = stem;
         result[1] = "어"+eomi;
-      }else if((jasos[1]=='ㅘ'||jasos[1]=='ㅝ'||jasos[1]=='ㅕ'||jasos[1]=='ㅐ'||jasos[1]=='ㅒ')&&
+      }else if((jung=='ㅘ'||jung=='ㅝ'||jung=='ㅕ'||jung=='ㅐ'||jung=='ㅒ')&&
           (DictionaryUtil.combineAndEomiCheck('어', eomi)!=null)) {        
         String end = "";        
-        if(jasos[1]=='ㅘ')
+        if(jung=='ㅘ')
           end=MorphUtil.makeChar(stem.charAt(i-1), 8, 0)+"아";  
-        else if(jasos[1]=='ㅝ')
+        else if(jung=='ㅝ')
           end=MorphUtil.makeChar(stem.charAt(i-1), 13, 0)+"어";  
-        else if(jasos[1]=='ㅕ')
+        else if(jung=='ㅕ')
           end=Character.toString(MorphUtil.makeChar(stem.charAt(i-1), 6, 0));
-        else if(jasos[1]=='ㅐ')
+        else if(jung=='ㅐ')
           end=MorphUtil.makeChar(stem.charAt(i-1), 0, 0)+"어";  
-        else if(jasos[1]=='ㅒ')
+        else if(jung=='ㅒ')
           end=MorphUtil.makeChar(stem.charAt(i-1), 20, 0)+"애";                    
         
-        if(jasos.length==3) {          
+        if(jong!=0) {          
           end = end.substring(0,end.length()-1)+MorphUtil.replaceJongsung(end.charAt(end.length()-1),stem.charAt(i-1));
         }
         
@@ -101,15 +104,15 @@ public class EomiUtil {
         else result[0] = stem.substring(0,stem.length()-1)+end;
         result[1] = eomi;  
         
-      }else if(efeature!=null&&efeature[SyllableUtil.IDX_EOMI1]!='0'&&
+      }else if(SyllableUtil.hasFeature(ech, SyllableUtil.IDX_EOMI1)&&
           DictionaryUtil.existEomi(eomi)) {
-        if(!(((jasos.length==2&&jasos[0]=='ㄹ')||(jasos.length==3&&jasos[2]=='ㄹ'))&&eomi.equals("러"))) { // ㄹ 불규칙은 예외
+        if(!(((jung!=0&&jong==0&&MorphUtil.choseong(last)=='ㄹ')||jong=='ㄹ')&&eomi.equals("러"))) { // ㄹ 불규칙은 예외
           result[0] = stem;
           result[1] = eomi;
         }
       }
 
-      if(efeature!=null&&efeature[SyllableUtil.IDX_EOMI2]=='0') break;
+      if(!SyllableUtil.hasFeature(ech, SyllableUtil.IDX_EOMI2)) break;
     }  
 
     return result;
@@ -132,25 +135,24 @@ public class EomiUtil {
     String pomi = "";
     int index = len-1;
   
-    char[] jaso = MorphUtil.decompose(chrs[index]);
-    if(chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ') return results;  // 선어말어미가 발견되지 않았다
+    char last = MorphUtil.lastJaso(chrs[index]);
+    if(chrs[index]!='시'&&chrs[index]!='ㅆ'&&last!='ㅆ') return results;  // 선어말어미가 발견되지 않았다
     
     if(chrs[index]=='겠') {
       pomi = "겠";
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
-          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ')) 
+          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&last!='ㅆ')) 
         return results; // 다음이거나 선어말어미가 없다면...
-      jaso = MorphUtil.decompose(chrs[index]);
+      last = MorphUtil.lastJaso(chrs[index]);
     }
 
     if(chrs[index]=='었') { // 시었, ㅆ었, 었
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
-          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ')) 
+          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&last!='ㅆ')) 
         return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);
     }
 
     if(chrs[index]=='였'){
@@ -169,31 +171,32 @@ public class EomiUtil {
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
           (chrs[index]!='시'&&chrs[index]!='으')) return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);    
-    }else if(jaso.length==3&&jaso[2]=='ㅆ') {
+    }else if(MorphUtil.jongseong(chrs[index])=='ㅆ') {
     
-      if(jaso[0]=='ㅎ'&&jaso[1]=='ㅐ') {       
+      char cho = MorphUtil.choseong(chrs[index]);
+      char jung = MorphUtil.jungseong(chrs[index]);
+      if(cho=='ㅎ'&&jung=='ㅐ') {       
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;  
         stem = stem.substring(0,index)+"하";  
-      }else if(jaso[0]!='ㅇ'&&(jaso[1]=='ㅏ'||jaso[1]=='ㅓ'||jaso[1]=='ㅔ'||jaso[1]=='ㅐ')) {    
+      }else if(cho!='ㅇ'&&(jung=='ㅏ'||jung=='ㅓ'||jung=='ㅔ'||jung=='ㅐ')) {    
         pomi = "었"+pomi;
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index], 0);        
-      }else if(jaso[0]!='ㅇ'&&(jaso[1]=='ㅙ')) {
+      }else if(cho!='ㅇ'&&(jung=='ㅙ')) {
         pomi = "었"+pomi;
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],11, 0);        
-      } else if(jaso[1]=='ㅘ') {      
+      } else if(jung=='ㅘ') {      
         pomi = MorphUtil.replaceJongsung('아',chrs[index])+pomi;  
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],8, 0);
-      } else if(jaso[1]=='ㅝ') {
+      } else if(jung=='ㅝ') {
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;  
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],13, 0);
-      } else if(jaso[1]=='ㅕ') {          
+      } else if(jung=='ㅕ') {          
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;        
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],20, 0);          
-      } else if(jaso[1]=='ㅐ') {
+      } else if(jung=='ㅐ') {
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;
         stem = stem.substring(0,index);
-      } else if(jaso[1]=='ㅒ') {
+      } else if(jung=='ㅒ') {
         pomi = MorphUtil.replaceJongsung('애',chrs[index])+pomi;  
         stem = stem.substring(0,index);
       } else {
@@ -201,25 +204,22 @@ public class EomiUtil {
       }
       setPomiResult(results,stem,pomi);        
       if(chrs[index]!='시'&&chrs[index]!='으') return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);        
     }
 
-    char[] nChrs = null;
-    if(index>0) nChrs = MorphUtil.decompose(chrs[index-1]);
-    else nChrs = new char[2];
+    // the syllable before has no final consonant, or there is none
+    boolean open = index==0||
+        (MorphUtil.jungseong(chrs[index-1])!=0&&MorphUtil.jongseong(chrs[index-1])==0);
 
-    if(nChrs.length==2&&chrs[index]=='시'&&(chrs.length<=index+1||
+    if(open&&chrs[index]=='시'&&(chrs.length<=index+1||
         (chrs.length>index+1&&chrs[index+1]!='셨'))) {
       if(DictionaryUtil.getWord(results[0])!=null) return results;  //'시'가 포함된 단어가 있다. 성가시다/도시다/들쑤시다 
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);      
       if(--index==0||chrs[index]!='으') return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);
     }
     
-    if(index>0) nChrs = MorphUtil.decompose(chrs[index-1]);
-    else nChrs = new char[2];
-    if(chrs.length>index+1&&nChrs.length==3&&(chrs[index+1]=='셨'||chrs[index+1]=='시')&&chrs[index]=='으') {
+    boolean closed = index>0&&MorphUtil.jongseong(chrs[index-1])!=0;
+    if(chrs.length>index+1&&closed&&(chrs[index+1]=='셨'||chrs[index+1]=='시')&&chrs[index]=='으') {
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);    
     }
@@ -273,18 +273,19 @@ public class EomiUtil {
   private static void irregularStem(List<String[]> results, String stem, String ending) {  
 
     char feCh = ending.charAt(0);
-    char[] fechJaso =  MorphUtil.decompose(feCh);
+    char feCho = MorphUtil.choseong(feCh);
     char ls = stem.charAt(stem.length()-1);
-    char[] lsJaso = MorphUtil.decompose(ls);
+    char lsJung = MorphUtil.jungseong(ls);
+    boolean lsOpen = lsJung!=0&&MorphUtil.jongseong(ls)==0; // 받침이 없는 음절
   
     if(feCh=='아'||feCh=='어'||feCh=='으') {
-      if(lsJaso[lsJaso.length-1]=='ㄹ') { // ㄷ 불규칙
+      if(MorphUtil.lastJaso(ls)=='ㄹ') { // ㄷ 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-1)+
                 MorphUtil.makeChar(stem.charAt(stem.length()-1),7)
                 ,ending
                 ,String.valueOf(PatternConstants.IRR_TYPE_DI)});
-      } else if(lsJaso.length==2) { // ㅅ 불규칙
+      } else if(lsOpen) { // ㅅ 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-1)+
                 MorphUtil.makeChar(stem.charAt(stem.length()-1),19)
@@ -293,7 +294,7 @@ public class EomiUtil {
       }      
     }
     
-    if((fechJaso[0]=='ㄴ'||fechJaso[0]=='ㄹ'||fechJaso[0]=='ㅁ'||  feCh=='오'||feCh=='시')
+    if((feCho=='ㄴ'||feCho=='ㄹ'||feCho=='ㅁ'||  feCh=='오'||feCh=='시')
         &&(ls=='우')) { // ㅂ 불규칙
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
@@ -302,8 +303,8 @@ public class EomiUtil {
               ,String.valueOf(PatternConstants.IRR_TYPE_BI)});        
     }
     
-    if((fechJaso[0]=='ㄴ'||fechJaso[0]=='ㅂ'||fechJaso[0]=='ㅅ'||  feCh=='오')
-        &&(lsJaso.length==2)) { // ㄹ 탈락
+    if((feCho=='ㄴ'||feCho=='ㅂ'||feCho=='ㅅ'||  feCh=='오')
+        &&lsOpen) { // ㄹ 탈락
 
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
@@ -312,9 +313,9 @@ public class EomiUtil {
               ,String.valueOf(PatternConstants.IRR_TYPE_LI)});      
     }
     
-    if(lsJaso.length==2
-        &&(fechJaso[0]=='ㄴ'||fechJaso[0]=='ㄹ'||fechJaso[0]=='ㅁ'||fechJaso[0]=='ㅂ'||
-        lsJaso[1]=='ㅏ'||lsJaso[1]=='ㅓ'||lsJaso[1]=='ㅑ'||lsJaso[1]=='ㅕ')
+    if(lsOpen
+        &&(feCho=='ㄴ'||feCho=='ㄹ'||feCho=='ㅁ'||feCho=='ㅂ'||
+        lsJung=='ㅏ'||lsJung=='ㅓ'||lsJung=='ㅑ'||lsJung=='ㅕ')
         &&!"나".equals(stem)) { // ㅎ 불규칙, 그러나 [낳다]는 ㅎ 불규칙이 아니다.
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
@@ -370,11 +371,12 @@ public class EomiUtil {
   private static void irregularAO(List<String[]> results, String stem, String ending) {
     
     char ls = stem.charAt(stem.length()-1);
-    char[] lsJaso = MorphUtil.decompose(ls);
+    if(!MorphUtil.isHanSyllable(ls)) return;
     
-    if(lsJaso.length<2) return;
+    char lsJung = MorphUtil.jungseong(ls);
+    boolean lsOpen = MorphUtil.jongseong(ls)==0; // 받침이 없는 음절
     
-    if(lsJaso[1]=='ㅘ') {
+    if(lsJung=='ㅘ') {
       if(stem.endsWith("도와")||stem.endsWith("고와")) { // '곱다', '돕다'의 'ㅂ' 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-2)+
@@ -394,7 +396,7 @@ public class EomiUtil {
               MorphUtil.makeChar(stem.charAt(stem.length()-1),18,0) // 자음 + - 
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_WA)});  
-    } else if(lsJaso[1]=='ㅝ') {
+    } else if(lsJung=='ㅝ') {
       if(stem.length()>=2) // 'ㅂ' 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-2)+
@@ -408,8 +410,7 @@ public class EomiUtil {
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_WA)});  
     } else if(stem.length()>=2&&ls=='라') {
-      char[] ns = MorphUtil.decompose(stem.charAt(stem.length()-2));
-      if(ns.length==3&&ns[2]=='ㄹ') { // 르 불규칙
+      if(MorphUtil.jongseong(stem.charAt(stem.length()-2))=='ㄹ') { // 르 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-2)+
                 MorphUtil.makeChar(stem.charAt(stem.length()-2),0) + "르"
@@ -417,13 +418,12 @@ public class EomiUtil {
                 ,String.valueOf(PatternConstants.IRR_TYPE_RO)});          
       }      
     } else if(stem.length()>=2&&ls=='러') {
-      char[] ns = MorphUtil.decompose(stem.charAt(stem.length()-2));
       if(stem.charAt(stem.length()-2)=='르') { // 러 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-1)
                 ,makeTesnseEomi("어",ending)
                 ,String.valueOf(PatternConstants.IRR_TYPE_LO)});  
-      } else if(ns.length==3&&ns[2]=='ㄹ') { // 르 불규칙
+      } else if(MorphUtil.jongseong(stem.charAt(stem.length()-2))=='ㄹ') { // 르 불규칙
         results.add(
             new String[]{stem.substring(0,stem.length()-2)+
                 MorphUtil.makeChar(stem.charAt(stem.length()-2),0) + "르"
@@ -442,13 +442,13 @@ public class EomiUtil {
               MorphUtil.makeChar(stem.charAt(stem.length()-1),0,0)
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_EI)});        
-    } else if(lsJaso.length==2&&lsJaso[1]=='ㅏ') {
+    } else if(lsOpen&&lsJung=='ㅏ') {
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
               MorphUtil.makeChar(stem.charAt(stem.length()-1),18,0)
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_UO)});  
-    } else if(lsJaso.length==2&&lsJaso[1]=='ㅓ') {
+    } else if(lsOpen&&lsJung=='ㅓ') {
       // 으 탈락
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
@@ -460,25 +460,25 @@ public class EomiUtil {
           new String[]{stem
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_AH)});  
-    } else if(lsJaso[1]=='ㅕ') {
+    } else if(lsJung=='ㅕ') {
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
               MorphUtil.makeChar(stem.charAt(stem.length()-1),20,0)
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_EI)});  
-    } else if(lsJaso[1]=='ㅙ') {
+    } else if(lsJung=='ㅙ') {
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
               MorphUtil.makeChar(stem.charAt(stem.length()-1),11,0)
               ,makeTesnseEomi("어",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_OE)});  
-    } else if(lsJaso[1]=='ㅐ') {
+    } else if(lsJung=='ㅐ') {
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
               MorphUtil.makeChar(stem.charAt(stem.length()-1),0,27)
               ,makeTesnseEomi("아",ending)
               ,String.valueOf(PatternConstants.IRR_TYPE_HI)});
-    } else if(lsJaso[1]=='ㅒ') {
+    } else if(lsJung=='ㅒ') {
       results.add(
           new String[]{stem.substring(0,stem.length()-1)+
               MorphUtil.makeChar(stem.charAt(stem.length()-1),2,27)
@@ -524,8 +524,7 @@ public class EomiUtil {
      int len = stem.length();
      if(len<2||!stem.endsWith("이")) return false;
     
-     char[] jasos = MorphUtil.decompose(stem.charAt(len-2));
-     if(jasos.length==3&&jasos[2]=='ㅁ')
+     if(MorphUtil.jongseong(stem.charAt(len-2))=='ㅁ')
        return true;
      else {
        int index = stem.lastIndexOf("기");
@@ -543,18 +542,16 @@ public class EomiUtil {
   
   public static boolean IsNLMBSyl(char ech, char lch) throws MorphException {
   
-    char[] features = SyllableUtil.getFeature(ech);
-
     switch(lch) {
 
       case 'ㄴ' :
-        return (features[SyllableUtil.IDX_YNPNA]=='1' || features[SyllableUtil.IDX_YNPLN]=='1');        
+        return (SyllableUtil.hasFeature(ech, SyllableUtil.IDX_YNPNA) || SyllableUtil.hasFeature(ech, SyllableUtil.IDX_YNPLN));        
       case 'ㄹ' :
-        return (features[SyllableUtil.IDX_YNPLA]=='1');
+        return SyllableUtil.hasFeature(ech, SyllableUtil.IDX_YNPLA);
       case 'ㅁ' :
-        return (features[SyllableUtil.IDX_YNPMA]=='1');    
+        return SyllableUtil.hasFeature(ech, SyllableUtil.IDX_YNPMA);    
       case 'ㅂ' :
-        return (features[SyllableUtil.IDX_YNPBA]=='1');          
+        return SyllableUtil.hasFeature(ech, SyllableUtil.IDX_YNPBA);          
     }
   
     return false;
@@ -576,22 +573,23 @@ public class EomiUtil {
     if(strlen==0) return strs;
    
     char estem = stem.charAt(strlen-1);
-    char[] chrs = MorphUtil.decompose(estem);
-    if(chrs.length==1) return strs; // 한글이 아니라면...
+    if(!MorphUtil.isHanSyllable(estem)) return strs; // 한글이 아니라면...
+    char cho = MorphUtil.choseong(estem);
+    char jung = MorphUtil.jungseong(estem);
+    char jong = MorphUtil.jongseong(estem);
 
-    if((chrs.length==3)
-        &&(chrs[2]=='ㄴ'||chrs[2]=='ㄹ'||chrs[2]=='ㅁ'||chrs[2]=='ㅂ')
-        &&EomiUtil.IsNLMBSyl(estem,chrs[2])
-        && DictionaryUtil.combineAndEomiCheck(chrs[2], end)!=null) 
+    if((jong=='ㄴ'||jong=='ㄹ'||jong=='ㅁ'||jong=='ㅂ')
+        &&EomiUtil.IsNLMBSyl(estem,jong)
+        && DictionaryUtil.combineAndEomiCheck(jong, end)!=null) 
     {    
-      strs[1] = Character.toString(chrs[2]);
+      strs[1] = Character.toString(jong);
       if(end.length()>0) strs[1] += end;
       
    	  strs[0] = stem.substring(0,strlen-1) + MorphUtil.makeChar(estem, 0);  
     } 
-    else if(chrs.length==3 && chrs[2]=='ㄹ' && DictionaryUtil.getVerb(stem)!=null && DictionaryUtil.combineAndEomiCheck(chrs[2], end)!=null) 
+    else if(jong=='ㄹ' && DictionaryUtil.getVerb(stem)!=null && DictionaryUtil.combineAndEomiCheck(jong, end)!=null) 
     {
-        strs[1] = Character.toString(chrs[2]);
+        strs[1] = Character.toString(jong);
         if(end.length()>0) strs[1] += end;
         strs[0] = stem; // "만들 때와는"에서 "만들"과 같은 경우
     }
@@ -605,13 +603,13 @@ public class EomiUtil {
       strs[0] = stem.substring(0,strlen-1)+"하";
       strs[1] = "이"+end;        
     } 
-    else if(chrs[0]!='ㅇ'&&
-        (chrs[1]=='ㅏ'||chrs[1]=='ㅓ'||chrs[1]=='ㅔ'||chrs[1]=='ㅐ')&&
-        (chrs.length==2 || SyllableUtil.getFeature(estem)[SyllableUtil.IDX_YNPAH]=='1')&&
+    else if(cho!='ㅇ'&&
+        (jung=='ㅏ'||jung=='ㅓ'||jung=='ㅔ'||jung=='ㅐ')&&
+        (jong==0 || SyllableUtil.hasFeature(estem, SyllableUtil.IDX_YNPAH))&&
         (DictionaryUtil.combineAndEomiCheck('어', end)!=null)) 
     {        
       strs[0] = stem;
-      if(chrs.length==2) strs[1] = "어"+end;  
+      if(jong==0) strs[1] = "어"+end;  
       else strs[1] = end;    
     } 
     else if(estem=='하'&&end!=null&&end.startsWith("여")&&
@@ -626,8 +624,8 @@ public class EomiUtil {
         strs[0] = stem.substring(0,stem.length()-1)+"리";
         strs[1] = "어"+end;        
     }
-    else if((chrs.length==2)&&
-        (chrs[1]=='ㅘ'||chrs[1]=='ㅙ'||chrs[1]=='ㅝ'||chrs[1]=='ㅕ'||chrs[1]=='ㅐ'||chrs[1]=='ㅒ')&&
+    else if((jong==0)&&
+        (jung=='ㅘ'||jung=='ㅙ'||jung=='ㅝ'||jung=='ㅕ'||jung=='ㅐ'||jung=='ㅒ')&&
         (DictionaryUtil.combineAndEomiCheck('어', end)!=null)) 
     {    
   
@@ -635,17 +633,17 @@ public class EomiUtil {
       
       if(strlen>1) sb.append(stem.substring(0,strlen-1));
       
-      if(chrs[1]=='ㅘ')
+      if(jung=='ㅘ')
         sb.append(MorphUtil.makeChar(estem, 8, 0)).append(MorphUtil.replaceJongsung('아',estem));  
-      else if(chrs[1]=='ㅝ')
+      else if(jung=='ㅝ')
         sb.append(MorphUtil.makeChar(estem, 13, 0)).append(MorphUtil.replaceJongsung('어',estem));  
-      else if(chrs[1]=='ㅙ')
+      else if(jung=='ㅙ')
         sb.append(MorphUtil.makeChar(estem, 11, 0)).append(MorphUtil.replaceJongsung('어',estem));        
-      else if(chrs[1]=='ㅕ')
+      else if(jung=='ㅕ')
         sb.append(Character.toString(MorphUtil.makeChar(estem, 20, 0))).append(MorphUtil.replaceJongsung('어',estem));
-      else if(chrs[1]=='ㅐ')
+      else if(jung=='ㅐ')
         sb.append(MorphUtil.makeChar(estem, 0, 0)).append(MorphUtil.replaceJongsung('어',estem));
-      else if(chrs[1]=='ㅒ')
+      else if(jung=='ㅒ')
         sb.append(MorphUtil.makeChar(estem, 20, 0)).append(MorphUtil.replaceJongsung('애',estem));  
     
       strs[0] = sb.toString();
@@ -21,6 +21,7 @@ import org.apache.lucene.analysis.ko.morph.MorphException;
 
 import java.io.*;
 import java.net.URL;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,6 +29,13 @@ import java.util.List;
  * file utility class
  */
 public class FileUtil {
+
+  /**
+   * the jar this class was loaded from, null when the classes are not in a jar
+   */
+  private static JarResources currentJar;
+
+  private static boolean currentJarResolved;
   
   /**
    * Given a file name for a file that is located somewhere in the application
@@ -96,19 +104,34 @@ public class FileUtil {
   public static List<String> readLines(String fName, String encoding) throws MorphException, IOException  {
     InputStream in = null;        
     try {
-
-      File file = getClassLoaderFile(fName);
-      if(file!=null&&file.exists()) {
-        in = openInputStream(file);
-      } else {
-        in = new ByteArrayInputStream(readByteFromCurrentJar(fName));
-      }
-        
+      in = openResource(fName);
       return readLines(in, encoding);
     } finally {
       closeQuietly(in);
     }
   }
+
+  /**
+   * Opens a resource of the classpath, which is a file or an entry of the jar this class
+   * was loaded from. A jar entry is decompressed as the stream is read.
+   * The caller must close the stream.
+   *
+   * @param name  the name of the resource (relative to the classpath)
+   * @return the stream of the resource, never <code>null</code>
+   * @throws MorphException if the resource can not be found in the classpath
+   * @throws IOException if the resource can not be opened
+   */
+  public static InputStream openResource(String name) throws MorphException, IOException {
+    File file = getClassLoaderFile(name);
+    if(file!=null) return openInputStream(file);
+
+    InputStream in = null;
+    JarResources jar = getCurrentJar();
+    if(jar!=null) in = jar.getInputStream(name);
+    if(in==null) in = FileUtil.class.getClassLoader().getResourceAsStream(name);
+    if(in==null) throw new MorphException("Unable to find " + name);
+    return in;
+  }
     
   //-----------------------------------------------------------------------
   /**
@@ -267,13 +290,26 @@ public class FileUtil {
 
   public static byte[] readByteFromCurrentJar(String resource) throws MorphException {
 
-    String  jarPath = FileUtil.class.getProtectionDomain().getCodeSource().getLocation().getPath();
-
-    JarResources jar = new JarResources(jarPath);
+    JarResources jar = getCurrentJar();
+    if(jar==null) return null;
     try {  
       return jar.getResource(resource);
     } catch (Exception e) {
       throw new MorphException(e.getMessage(),e);
     }
   }
+
+  /**
+   * The jar is opened once and kept open, the resources are looked up in its central directory.
+   * @return the jar this class was loaded from, or null if the classes are not in a jar
+   */
+  private static synchronized JarResources getCurrentJar() {
+    if(!currentJarResolved) {
+      currentJarResolved = true;
+      CodeSource source = FileUtil.class.getProtectionDomain().getCodeSource();
+      File jarFile = source==null ? null : toFile(source.getLocation());
+      if(jarFile!=null&&jarFile.isFile()) currentJar = new JarResources(jarFile.getPath());
+    }
+    return currentJar;
+  }
 }
@@ -20,50 +20,114 @@ package org.apache.lucene.analysis.ko.utils;
 import org.apache.lucene.analysis.ko.morph.MorphException;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
+/**
+ * Converts hanja to hangul with the table of mapHanja.dic.
+ * <p>
+ * The readings are kept in an array indexed by the code of the hanja, from the lowest to the
+ * highest hanja of the dictionary (the CJK unified ideographs and their extension A), so a
+ * lookup allocates nothing.
+ */
 public class HanjaUtils {
 
-  private static Map<String, char[]> mapHanja;
+  /**
+   * not changed after loading, so it is read without locking.
+   */
+  private static volatile Table table;
   
   public synchronized static void loadDictionary() throws MorphException {
-    try {
-      List<String> strList = FileUtil.readLines("org/apache/lucene/analysis/ko/dic/mapHanja.dic","UTF-8");
-      mapHanja = new HashMap<String, char[]>();    
-    
-      for(int i=0;i<strList.size();i++) {
-        
-        if(strList.get(i).length()<1||
-            strList.get(i).indexOf(",")==-1) continue;
+    // indexed by the whole range of char while loading, trimmed to the hanja found
+    final char[][] readings = new char[Character.MAX_VALUE+1][];
 
-        String[] hanInfos = strList.get(i).split("[,]+");
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_HANJA), new LineHandler() {
+      public void line(DictionaryReader.Line line) {
+        if(line.split(',')!=2) return;
 
-        if(hanInfos.length!=2) continue;
-        
-        String hanja = StringEscapeUtil.unescapeJava(hanInfos[0]);
+        String hanja = StringEscapeUtil.unescapeJava(line.field(0));
+        if(hanja.length()!=1) return; // never looked up by a single char
 
-        mapHanja.put(hanja, hanInfos[1].toCharArray());
-      }      
-    } catch (IOException e) {
-      throw new MorphException(e);
+        readings[hanja.charAt(0)] = line.field(1).toCharArray();
+      }
+    });
+    table = new Table(readings);
+  }
+  
+  /**
+   * @return the hanja table, loaded by the first call
+   */
+  static Table getTable() throws MorphException {
+    Table t = table;
+    if(t==null) {
+      synchronized(HanjaUtils.class) {
+        if(table==null) loadDictionary();
+        t = table;
+      }
     }
+    return t;
   }
   
   /**
    * 한자에 대응하는 한글을 찾아서 반환한다.
    * 하나의 한자는 여러 음으로 읽일 수 있으므로 가능한 모든 음을 한글로 반환한다.
+   * the returned array is shared and must not be changed.
    */
   public static char[] convertToHangul(char hanja) throws MorphException {
  
-    if(mapHanja==null)  loadDictionary();
-
-//    if(hanja>0x9FFF||hanja<0x3400) return new char[]{hanja};
-    
-    char[] result = mapHanja.get(new String(new char[]{hanja}));
+    char[] result = getTable().get(hanja);
     if(result==null) return new char[]{hanja};
     
     return result;
   }
+  
+  /**
+   * 한자의 첫번째 음을 반환한다.
+   * @return the first reading of the hanja, or the char itself if it is not a hanja of the dictionary
+   */
+  public static char toHangul(char hanja) throws MorphException {
+    char[] result = getTable().get(hanja);
+    return result==null ? hanja : result[0];
+  }
+  
+  /**
+   * 텍스트의 한자를 첫번째 음의 한글로 바꾸어 쓴다. 한자가 아닌 글자는 그대로 쓴다.
+   * @param text  the text to convert
+   * @param out   where the converted text is appended
+   * @throws IOException thrown by the appendable
+   * @throws MorphException when the hanja dictionary can not be loaded
+   */
+  public static void convert(CharSequence text, Appendable out) throws IOException, MorphException {
+    Table t = getTable();
+    for(int i=0;i<text.length();i++) {
+      char ch = text.charAt(i);
+      char[] result = t.get(ch);
+      out.append(result==null ? ch : result[0]);
+    }
+  }
+  
+  /**
+   * the readings of the hanja from first to last, indexed by the code minus first.
+   */
+  static final class Table {
+    
+    private final char first;
+    
+    private final char[][] readings;
+    
+    Table(char[][] all) {
+      int lo = 0;
+      while(lo<all.length&&all[lo]==null) lo++;
+      int hi = all.length;
+      while(hi>lo&&all[hi-1]==null) hi--;
+      
+      first = (char)(lo<all.length ? lo : 0);
+      readings = new char[hi-lo][];
+      System.arraycopy(all, lo, readings, 0, hi-lo);
+    }
+    
+    char[] get(char hanja) {
+      int idx = hanja-first;
+      if(idx<0||idx>=readings.length) return null;
+      return readings[idx];
+    }
+  }
 }
@@ -56,11 +56,16 @@ public class IrregularUtil {
   public static String[] restoreIrregularVerb(String start, String end) throws MorphException {
 
     if(end==null) end="";
-    char[] jasos = new char[0];    
-
-    if(end.length()>0) jasos = MorphUtil.decompose(end.charAt(0));
+    
+    // 어미 첫음절의 초성과 중성
+    char cho = 0;
+    char jung = 0;
+    if(end.length()>0) {
+      cho = MorphUtil.choseong(end.charAt(0));
+      jung = MorphUtil.jungseong(end.charAt(0));
+    }
 
-    if(end.startsWith("ㄴ") || 'ㄴ'==jasos[0]) {      
+    if(end.startsWith("ㄴ") || 'ㄴ'==cho) {      
       String[] irrs = restoreBIrregular(start,end);
       if(irrs!=null) return irrs;  
       irrs = restoreHIrregular(start,end);
@@ -100,7 +105,7 @@ public class IrregularUtil {
 //    }else if(end.startsWith("으")) {      
 //      String[] irrs = restoreBIrregular(start,end);
 //      if(irrs!=null) return irrs;        
-    }else if(jasos.length>1&&jasos[0]=='ㅇ'&&(jasos[1]=='ㅓ'||jasos[1]=='ㅏ')) {      
+    }else if(cho=='ㅇ'&&(jung=='ㅓ'||jung=='ㅏ')) {      
       String[] irrs = restoreDIrregular(start,end);
       if(irrs!=null) return irrs;  
       irrs = restoreSIrregular(start,end);
@@ -113,7 +118,7 @@ public class IrregularUtil {
       if(irrs!=null) return irrs;    
       irrs = restoreRUIrregular(start,end);
       if(irrs!=null) return irrs;            
-    }else if(jasos.length>1&&jasos[0]=='ㅇ'&&jasos[1]=='ㅡ') {      
+    }else if(cho=='ㅇ'&&jung=='ㅡ') {      
       String[] irrs = restoreDIrregular(start,end);
       if(irrs!=null) return irrs;    
       irrs = restoreSIrregular(start,end);
@@ -170,8 +175,7 @@ public class IrregularUtil {
     if(start==null||"".equals(start)) return null;
     
     char ch = start.charAt(start.length()-1);
-    char[] jasos = MorphUtil.decompose(ch);
-    if(jasos.length!=3||jasos[2]!='ㄹ') return null;
+    if(MorphUtil.jongseong(ch)!='ㄹ') return null;
     
     ch = MorphUtil.makeChar(ch, 7);
     if(start.length()>1) 
@@ -196,8 +200,7 @@ public class IrregularUtil {
     if(start==null||"".equals(start)) return null;
     
     char ch = start.charAt(start.length()-1);
-    char[] jasos = MorphUtil.decompose(ch);
-    if(jasos.length!=2) return null;
+    if(!MorphUtil.isHanSyllable(ch)||MorphUtil.jongseong(ch)!=0) return null;
     
     ch = MorphUtil.makeChar(ch, 19);
     if(start.length()>1) 
@@ -226,9 +229,9 @@ public class IrregularUtil {
     char ch1 = start.charAt(start.length()-2);
     char ch2 = start.charAt(start.length()-1);
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
+    char jong1 = MorphUtil.jongseong(ch1);
     
-    if(((jasos1.length==3&&jasos1[2]=='ㄹ')||jasos1.length==2)&&(ch2=='러'||ch2=='라')) {
+    if((jong1=='ㄹ'||(MorphUtil.isHanSyllable(ch1)&&jong1==0))&&(ch2=='러'||ch2=='라')) {
   
       StringBuffer sb = new StringBuffer();
       
@@ -259,9 +262,8 @@ public class IrregularUtil {
     if(start==null || start.length()==0 || end==null||end.length()==0) return null;
        
     char ch1 = end.charAt(0);   
-    char[] jasos1 = MorphUtil.decompose(ch1);
     
-    if(!(end.charAt(0)=='ㄴ'||end.charAt(0)=='ㄹ'||end.charAt(0)=='ㅂ'|| jasos1[0]=='ㄴ' ||         
+    if(!(end.charAt(0)=='ㄴ'||end.charAt(0)=='ㄹ'||end.charAt(0)=='ㅂ'|| MorphUtil.choseong(ch1)=='ㄴ' ||         
         end.charAt(0)=='오' || end.charAt(0)=='시')) return null;
       
     char convEnd = MorphUtil.makeChar(start.charAt(start.length()-1), 8);
@@ -287,9 +289,7 @@ public class IrregularUtil {
     char ch1 = start.charAt(start.length()-1);
     char ch2 = start.charAt(start.length()-2);
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
-    char[] jasos2 = MorphUtil.decompose(ch2);
-    if(jasos1[0]!='ㄹ'||jasos2[0]!='ㄹ') return null;
+    if(MorphUtil.choseong(ch1)!='ㄹ'||MorphUtil.choseong(ch2)!='ㄹ') return null;
     
     ch2 = MorphUtil.makeChar(ch2, 0);
     if(start.length()>2) 
@@ -315,13 +315,10 @@ public class IrregularUtil {
     char ch1 = end.charAt(0);
     char ch2 = start.charAt(start.length()-1);
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
-    char[] jasos2 = MorphUtil.decompose(ch2);
-    
-    if(jasos1.length==1) {
+    if(!MorphUtil.isHanSyllable(ch1)) {
       ch2 = MorphUtil.makeChar(ch2, 27);
     }else {
-      if(jasos2.length!=2||jasos2[1]!='ㅐ') return null;
+      if(MorphUtil.jongseong(ch2)!=0||MorphUtil.jungseong(ch2)!='ㅐ') return null;
       ch2 = MorphUtil.makeChar(ch2, 0, 27);
     }
             
@@ -346,8 +343,7 @@ public class IrregularUtil {
   private static String[] restoreUIrregular(String start, String end) throws MorphException {
     if(start==null||"".equals(start)) return null;
     char ch = start.charAt(start.length()-1);    
-    char[] jasos = MorphUtil.decompose(ch);
-    if(!(jasos.length==2&&jasos[1]=='ㅓ')) return null;
+    if(!(MorphUtil.jongseong(ch)==0&&MorphUtil.jungseong(ch)=='ㅓ')) return null;
     
     ch = MorphUtil.makeChar(ch, 18,0);
 
@@ -17,36 +17,31 @@ package org.apache.lucene.analysis.ko.utils;
  * limitations under the License.
  */
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.InputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipInputStream;
 
 /**
- * JarResources: JarResources maps all resources included in a
- * Zip or Jar file. Additionaly, it provides a method to extract one
- * as a blob.
+ * JarResources: reads the resources of a Zip or Jar file.
+ * <p>
+ * The file is opened on the first lookup and kept open, the resources are found
+ * through the central directory of the file, so a lookup reads only the requested entry.
+ * Instances are safe to share between threads.
  */
 public final class JarResources {
 
   // external debug flag
   public boolean debugOn=false;
 
-  // jar resource mapping tables
-  private Map<String, Integer> htSizes=new HashMap<String, Integer>();  
-
   // a jar file
   private String jarFileName;
 
+  private ZipFile zipFile;
+
   /**
-   * creates a JarResources. It extracts all resources from a Jar
-   * into an internal hashtable, keyed by resource names.
+   * creates a JarResources. The file is opened when a resource is first read.
    * @param jarFileName a jar or zip file
    */
   public JarResources(String jarFileName) {
@@ -56,79 +51,61 @@ public final class JarResources {
   /**
    * Extracts a jar resource as a blob.
    * @param name a resource name.
+   * @return the contents of the resource, or null if the file has no such resource
+   *  or can not be read
    */
   public byte[] getResource(String name) {
-    return read(name);
+    InputStream in = null;
+    try {
+      in = getInputStream(name);
+      if(in==null) return null;
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[8192];
+      int n;
+      while((n=in.read(buf))!=-1) out.write(buf,0,n);
+      return out.toByteArray();
+    } catch (IOException e) {
+      e.printStackTrace();
+    } finally {
+      FileUtil.closeQuietly(in);
+    }
+    return null;
   }
 
   /**
-   * initializes internal hash tables with Jar file resources.
+   * Opens a jar resource as a stream, which decompresses the entry as it is read.
+   * The caller must close the stream.
+   * @param name a resource name.
+   * @return the stream, or null if the file has no such resource
+   * @throws IOException if the file can not be opened
    */
-  private byte[] read(String name) {
-    try {
-      // extracts just sizes only. 
-      ZipFile zf=new ZipFile(jarFileName);
-      Enumeration<? extends ZipEntry> e=zf.entries();
-      while (e.hasMoreElements()) {
-        ZipEntry ze=e.nextElement();
-        if (debugOn) {
-          System.out.println(dumpZipEntry(ze));
-        }
-        htSizes.put(ze.getName(),new Integer((int)ze.getSize()));
-      }
-      zf.close();
+  public InputStream getInputStream(String name) throws IOException {
+    ZipFile zf = open();
+    ZipEntry ze = zf.getEntry(name);
+    if(ze==null||ze.isDirectory()) return null;
 
-      // extract resources and put them into the hashtable.
-      FileInputStream fis=new FileInputStream(jarFileName);
-      BufferedInputStream bis=new BufferedInputStream(fis);
-      ZipInputStream zis=new ZipInputStream(bis);
-      ZipEntry ze=null;
-      while ((ze=zis.getNextEntry())!=null) {
-        if (ze.isDirectory()) {
-          continue;
-        }
-        if (debugOn) {
-          System.out.println(
-              "ze.getName()="+ze.getName()+","+"getSize()="+ze.getSize()
-          );
-        }
-        int size=(int)ze.getSize();
-        // -1 means unknown size. 
-        if (size==-1) {
-          size=(htSizes.get(ze.getName())).intValue();
-        }
-        byte[] b=new byte[size];
-        int rb=0;
-        int chunk=0;
-        while ((size - rb) > 0) {
-          chunk=zis.read(b,rb,size - rb);
-          if (chunk==-1) {
-            break;
-          }
-          rb+=chunk;
-        }
+    if (debugOn) {
+      System.out.println(dumpZipEntry(ze));
+    }
+    return zf.getInputStream(ze);
+  }
 
-        if (debugOn) {
-          System.out.println(
-              ze.getName()+"  rb="+rb+
-                  ",size="+size+
-                  ",csize="+ze.getCompressedSize()
-          );
-        }
-             
-        if(ze.getName().equals(name))  {
-          return b;
-        }
-      }
-    } catch (NullPointerException e) {
-      System.out.println("done.");
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-    } catch (IOException e) {
-      e.printStackTrace();
+  private synchronized ZipFile open() throws IOException {
+    if(zipFile==null) zipFile = new ZipFile(jarFileName);
+    return zipFile;
+  }
+
+  /**
+   * Closes the file. It is opened again when a resource is read later.
+   */
+  public synchronized void close() throws IOException {
+    if(zipFile==null) return;
+    try {
+      zipFile.close();
+    } finally {
+      zipFile = null;
     }
-       
-    return null;
   }
 
   /**
@@ -155,4 +132,4 @@ public final class JarResources {
     }
     return (sb.toString());
   }
-}
\ No newline at end of file
+}
@@ -19,9 +19,7 @@ package org.apache.lucene.analysis.ko.utils;
 
 import org.apache.lucene.analysis.ko.morph.MorphException;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.Properties;
 
 public class KoreanEnv {
@@ -30,6 +28,16 @@ public class KoreanEnv {
   
   public static final String FILE_DICTIONARY = "dictionary.dic";  
   
+  /**
+   * compiled dictionary image written by {@link DictionaryCompiler}. no default.
+   */
+  public static final String FILE_DICTIONARY_BIN = "dictionary.bin";
+  
+  /**
+   * user dictionary, see {@link DictionaryUtil#loadUserDictionary(String)}. no default.
+   */
+  public static final String FILE_USER_DICTIONARY = "user.dic";
+  
   public static final String FILE_JOSA = "josa.dic";
   
   public static final String FILE_EOMI = "eomi.dic";
@@ -48,6 +56,16 @@ public class KoreanEnv {
   
   public static final String FILE_CJ = "cj.dic";
   
+  public static final String FILE_HANJA = "hanja.dic";
+  
+  public static final String FILE_TAGGER = "tagger.dic";
+  
+  /**
+   * the resources loaded by {@link DictionaryUtil#warmUp(java.util.concurrent.Executor)},
+   * a comma separated list of the keys above. no default, which means all of them.
+   */
+  public static final String WARMUP_RESOURCES = "warmup.resources";
+  
   public static final String FILE_KOREAN_PROPERTY = "org/apache/lucene/analysis/ko/korean.properties";
   
   private Properties defaults = null;
@@ -57,7 +75,7 @@ public class KoreanEnv {
    */
   private Properties props = null;
   
-  private static KoreanEnv instance = null;
+  private static volatile KoreanEnv instance = null;
   
   /**
    * The constructor loads property values from the property file.
@@ -72,10 +90,17 @@ public class KoreanEnv {
   }
   
   public static KoreanEnv getInstance() throws MorphException {
-    if(instance==null)
-      instance = new KoreanEnv();
-
-    return instance;
+    KoreanEnv env = instance;
+    if(env==null) {
+      synchronized(KoreanEnv.class) {
+        env = instance;
+        if(env==null) {
+          env = new KoreanEnv();
+          instance = env;
+        }
+      }
+    }
+    return env;
   }
   
   /**
@@ -95,6 +120,8 @@ public class KoreanEnv {
     defaults.setProperty(FILE_UNCOMPOUNDS,"org/apache/lucene/analysis/ko/dic/uncompounds.dic");
     defaults.setProperty(FILE_ABBREV,"org/apache/lucene/analysis/ko/dic/abbreviation.dic");
     defaults.setProperty(FILE_CJ,"org/apache/lucene/analysis/ko/dic/cj.dic");
+    defaults.setProperty(FILE_HANJA,"org/apache/lucene/analysis/ko/dic/mapHanja.dic");
+    defaults.setProperty(FILE_TAGGER,"org/apache/lucene/analysis/ko/dic/occurrence.dic");
   }
 
   
@@ -112,19 +139,14 @@ public class KoreanEnv {
       properties = new Properties(def);
     }
 
-    File file = null;
+    InputStream in = null;
     try {
-      file = FileUtil.getClassLoaderFile(FILE_KOREAN_PROPERTY);
-
-      if (file != null) {
-        properties.load(new FileInputStream(file));
-        return properties;
-      }
-      
-      byte[] in = FileUtil.readByteFromCurrentJar(FILE_KOREAN_PROPERTY);
-      properties.load(new ByteArrayInputStream(in));
+      in = FileUtil.openResource(FILE_KOREAN_PROPERTY);
+      properties.load(in);
     } catch (Exception e) {
       throw new MorphException("Failure while trying to load properties file ", e);
+    } finally {
+      FileUtil.closeQuietly(in);
     }
     return properties;
   }
@@ -0,0 +1,59 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.MorphException;
+
+/**
+ * A resource loaded on its first use.
+ * <p>
+ * Every resource has its own lock, so different resources can be loaded by different threads at
+ * the same time. Once loaded, the value is read through a volatile field without locking; it must
+ * not be changed afterwards.
+ */
+abstract class LazyResource<T> {
+
+  private volatile T value;
+
+  /**
+   * @return the resource, loaded by the first call
+   * @throws MorphException when the resource can not be loaded, the next call tries again
+   */
+  T get() throws MorphException {
+    T v = value;
+    if(v==null) {
+      synchronized(this) {
+        v = value;
+        if(v==null) {
+          v = load();
+          value = v;
+        }
+      }
+    }
+    return v;
+  }
+
+  boolean isLoaded() {
+    return value!=null;
+  }
+
+  /**
+   * load the resource. it must not return null.
+   */
+  protected abstract T load() throws MorphException;
+}
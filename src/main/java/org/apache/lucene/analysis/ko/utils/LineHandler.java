@@ -0,0 +1,33 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.morph.MorphException;
+
+/**
+ * receives the lines of a dictionary file read by {@link DictionaryReader}.
+ */
+public interface LineHandler {
+
+  /**
+   * called for every line but the comments, in the order of the file.
+   * @param line  the line, which is only valid until this method returns
+   * @throws MorphException to stop reading the file
+   */
+  public void line(DictionaryReader.Line line) throws MorphException;
+}
@@ -72,6 +72,43 @@ public class MorphUtil {
     return result;
   }  
   
+  /**
+   * 한글 음절의 초성을 반환한다. the same as <code>decompose(c)[0]</code>, without allocating.
+   * @return the initial consonant, or c itself if it is not a hangul syllable
+   */
+  public static char choseong(char c) {
+    if(c>0xD7A3||c<0xAC00) return c;
+    return CHOSEONG[(c-0xAC00)/JUNG_JONG];
+  }
+  
+  /**
+   * 한글 음절의 중성을 반환한다.
+   * @return the vowel, or '\0' if c is not a hangul syllable
+   */
+  public static char jungseong(char c) {
+    if(c>0xD7A3||c<0xAC00) return '\0';
+    return JUNGSEONG[(c-0xAC00)%JUNG_JONG/JONGSEONG.length];
+  }
+  
+  /**
+   * 한글 음절의 종성을 반환한다.
+   * @return the final consonant, or '\0' if there is none or c is not a hangul syllable
+   */
+  public static char jongseong(char c) {
+    if(c>0xD7A3||c<0xAC00) return '\0';
+    return JONGSEONG[(c-0xAC00)%JONGSEONG.length];
+  }
+  
+  /**
+   * 마지막 자소를 반환한다. the same as the last element of {@link #decompose(char)}.
+   * @return the final consonant, or the vowel if there is no final consonant, or c itself if it is not a hangul syllable
+   */
+  public static char lastJaso(char c) {
+    if(c>0xD7A3||c<0xAC00) return c;
+    char jongseong = JONGSEONG[(c-0xAC00)%JONGSEONG.length];
+    return jongseong!=0 ? jongseong : jungseong(c);
+  }
+  
   public static char compound(int first, int middle, int last) {    
     return (char)(0xAC00 + first* JUNG_JONG + middle * JONGSEONG.length + last);
   }
@@ -145,8 +182,7 @@ public class MorphUtil {
   public static void buildPtnCM(AnalysisOutput output, List<AnalysisOutput> candidates) throws MorphException {
     
     char ch = output.getStem().charAt(output.getStem().length()-2);
-    char[] jasos = MorphUtil.decompose(ch);
-    if(jasos.length==3||ch=='기') {
+    if(jongseong(ch)!=0||ch=='기') {
       buildPtnVMCM(output,candidates);      
     } else {
       
@@ -160,7 +196,6 @@ public class MorphUtil {
     output.setPos(PatternConstants.POS_VERB);
     
     char ch = stem.charAt(stem.length()-2);
-    char[] jasos = MorphUtil.decompose(ch);
 
     if(ch=='기') {
       output.addElist("기");
@@ -169,7 +204,7 @@ public class MorphUtil {
       
       if(DictionaryUtil.getVerb(output.getStem())!=null)
         candidates.add(output);
-    }else if(jasos[2]=='ㅁ') {
+    }else if(jongseong(ch)=='ㅁ') {
       if(stem.length()>1) stem = stem.substring(0,stem.length()-2);
       stem += MorphUtil.makeChar(ch, 0);
       output.addElist("ㅁ");
@@ -193,8 +228,7 @@ public class MorphUtil {
     
    try {
      for(int i=input.length()-1;i>=0;i--) {
-        char[] feature = SyllableUtil.getFeature(input.charAt(i));
-        if(feature[SyllableUtil.IDX_WDSURF]=='1'&&input.length()>i) return true;
+        if(SyllableUtil.hasFeature(input.charAt(i), SyllableUtil.IDX_WDSURF)&&input.length()>i) return true;
       }
    } catch(MorphException e) {
 	  throw new RuntimeException(e);
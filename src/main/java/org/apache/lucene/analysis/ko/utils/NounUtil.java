@@ -40,6 +40,9 @@ public class NounUtil {
   /**
    * 
    * 어간부가 음/기 로 끝나는 경우
+   * <p>
+   * The output is not changed but for the eomi list, the split is cloned once when an ending
+   * is found, and the rules clone it again only when they accept.
    * 
    * @param o the analyzed output
    * @param candidates  candidates
@@ -51,10 +54,9 @@ public class NounUtil {
        
     if(strlen<2) return false;       
 
-    char[] chrs = MorphUtil.decompose(o.getStem().charAt(strlen-1));
-    boolean success = false;
+    char jong = MorphUtil.jongseong(o.getStem().charAt(strlen-1));
 
-    if(o.getStem().charAt(strlen-1)!='기'&&!(chrs.length==3&&chrs[2]=='ㅁ')) return false;
+    if(o.getStem().charAt(strlen-1)!='기'&&jong!='ㅁ') return false;
 
     String start = o.getStem();
     String end = "";
@@ -69,23 +71,21 @@ public class NounUtil {
     String[] eomis = EomiUtil.splitEomi(start, end);
     if(eomis[0]==null) return false;
     String[] pomis = EomiUtil.splitPomi(eomis[0]);
-    o.setStem(pomis[0]);
-    o.addElist(eomis[1]);       
-    o.setPomi(pomis[1]);
+    
+    AnalysisOutput split = newOutput(o);
+    split.setStem(pomis[0]);
+    split.addElist(eomis[1]);       
+    split.setPomi(pomis[1]);
      
-    try {
-      if(analysisVMJ(o.clone(),candidates)) return true;         
-      if(analysisNSMJ(o.clone(),candidates)) return true;
-      if(analysisVMXMJ(o.clone(),candidates)) return true;
-    } catch (CloneNotSupportedException e) {
-      throw new MorphException(e.getMessage(),e);
-    }
+    if(analysisVMJ(split,candidates)) return true;         
+    if(analysisNSMJ(split,candidates)) return true;
+    if(analysisVMXMJ(split,candidates)) return true;
               
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
-      o.setPos(PatternConstants.POS_VERB);
-      o.setPatn(PatternConstants.PTN_VMJ);
-      o.setScore(AnalysisOutput.SCORE_CORRECT);
-      candidates.add(o);
+    if(DictionaryUtil.getVerb(split.getStem())!=null) {
+      split.setPos(PatternConstants.POS_VERB);
+      split.setPatn(PatternConstants.PTN_VMJ);
+      split.setScore(AnalysisOutput.SCORE_CORRECT);
+      candidates.add(split);
       return true;
     }
      
@@ -101,17 +101,20 @@ public class NounUtil {
    */
   public static boolean analysisVMJ(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
 
-    String[] irrs =  IrregularUtil.restoreIrregularVerb(o.getStem(), o.getElist().get(0));
+    String stem = o.getStem();
+    String[] irrs =  IrregularUtil.restoreIrregularVerb(stem, o.getElist().get(0));
     if(irrs!=null) {
-      o.setStem(irrs[0]);
+      stem = irrs[0];
       o.setElist(irrs[1],0);
     }
         
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
-      o.setPatn(PatternConstants.PTN_VMJ);
-      o.setPos(PatternConstants.POS_VERB);
-      o.setScore(AnalysisOutput.SCORE_CORRECT);
-      candidates.add(o);
+    if(DictionaryUtil.getVerb(stem)!=null) {
+      AnalysisOutput output = newOutput(o);
+      output.setStem(stem);
+      output.setPatn(PatternConstants.PTN_VMJ);
+      output.setPos(PatternConstants.POS_VERB);
+      output.setScore(AnalysisOutput.SCORE_CORRECT);
+      candidates.add(output);
       return true;
     }
       
@@ -130,7 +133,7 @@ public class NounUtil {
 
     if(idxXVerb!=-1) { // 2. 사랑받아보다
       String eogan = o.getStem().substring(0,idxXVerb);
-      o.setXverb(o.getStem().substring(idxXVerb));
+      String xverb = o.getStem().substring(idxXVerb);
 
       String[] stomis = null;
       if(eogan.endsWith("아")||eogan.endsWith("어"))
@@ -139,22 +142,26 @@ public class NounUtil {
         stomis = EomiUtil.splitEomi(eogan,"");
       if(stomis[0]==null) return false;
   
+      String stem;
       String[] irrs =  IrregularUtil.restoreIrregularVerb(stomis[0], stomis[1]);
       if(irrs!=null) {
-        o.setStem(irrs[0]);
+        stem = irrs[0];
         o.addElist(irrs[1]);
       }else {
-        o.setStem(stomis[0]);
+        stem = stomis[0];
         o.addElist(stomis[1]);
       }
         
-      if(DictionaryUtil.getVerb(o.getStem())!=null) {
-        o.setPatn(PatternConstants.PTN_VMXMJ);
-        o.setPos(PatternConstants.POS_VERB);
-        o.setScore(AnalysisOutput.SCORE_CORRECT);
-        candidates.add(o);
+      if(DictionaryUtil.getVerb(stem)!=null) {
+        AnalysisOutput output = newOutput(o);
+        output.setXverb(xverb);
+        output.setStem(stem);
+        output.setPatn(PatternConstants.PTN_VMXMJ);
+        output.setPos(PatternConstants.POS_VERB);
+        output.setScore(AnalysisOutput.SCORE_CORRECT);
+        candidates.add(output);
         return true;
-      }else if(analysisNSMXMJ(o, candidates)){
+      }else if(analysisNSMJ(o, stem, xverb, PatternConstants.PTN_NSMXMJ, candidates)){
         return true;          
       }
 
@@ -170,58 +177,60 @@ public class NounUtil {
    * @throws MorphException throw exception
    */
   public static boolean analysisNSMJ(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
-
-    int idxVbSfix = VerbUtil.endsWithVerbSuffix(o.getStem());        
-    if(idxVbSfix==-1) return false;
-    
-    o.setVsfx(o.getStem().substring(idxVbSfix));
-    o.setStem(o.getStem().substring(0,idxVbSfix));
-    o.setPatn(PatternConstants.PTN_NSMJ);
-    o.setPos(PatternConstants.POS_NOUN);
-      
-    WordEntry entry = DictionaryUtil.getWordExceptVerb(o.getStem());
-
-    if(entry!=null) {
-      if(entry.getFeature(WordEntry.IDX_NOUN)=='0') return false;
-      else if(o.getVsfx().equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
-      else if(o.getVsfx().equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;
-      else if(o.getVsfx().equals("내")&&entry.getFeature(WordEntry.IDX_NE)!='1') return false;
-      o.setScore(AnalysisOutput.SCORE_CORRECT); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.      
-    }else {
-      o.setScore(AnalysisOutput.SCORE_ANALYSIS); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.
-    }
-    
-    candidates.add(o);
-      
-    return true;
+    return analysisNSMJ(o, o.getStem(), o.getXverb(), PatternConstants.PTN_NSMJ, candidates);
   }         
      
   public static boolean analysisNSMXMJ(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
+    return analysisNSMJ(o, o.getStem(), o.getXverb(), PatternConstants.PTN_NSMXMJ, candidates);
+  }
+  
+  /**
+   * 체언 + 용언화접미사 + ... + '음/기' + 조사, the output is cloned from o when the rule accepts the stem.
+   */
+  private static boolean analysisNSMJ(AnalysisOutput o, String stem, String xverb, int patn, 
+      List<AnalysisOutput> candidates) throws MorphException {
 
-    int idxVbSfix = VerbUtil.endsWithVerbSuffix(o.getStem());        
+    int idxVbSfix = VerbUtil.endsWithVerbSuffix(stem);        
     if(idxVbSfix==-1) return false;
     
-    o.setVsfx(o.getStem().substring(idxVbSfix));
-    o.setStem(o.getStem().substring(0,idxVbSfix));
-    o.setPatn(PatternConstants.PTN_NSMXMJ);
-    o.setPos(PatternConstants.POS_NOUN);
+    String vsfx = stem.substring(idxVbSfix);
+    stem = stem.substring(0,idxVbSfix);
       
-    WordEntry entry = DictionaryUtil.getWordExceptVerb(o.getStem());
+    WordEntry entry = DictionaryUtil.getWordExceptVerb(stem);
 
+    int score;
     if(entry!=null) {
       if(entry.getFeature(WordEntry.IDX_NOUN)=='0') return false;
-      else if(o.getVsfx().equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
-      else if(o.getVsfx().equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;
-      else if(o.getVsfx().equals("내")&&entry.getFeature(WordEntry.IDX_NE)!='1') return false;
-      o.setScore(AnalysisOutput.SCORE_CORRECT); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.      
+      else if(vsfx.equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
+      else if(vsfx.equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;
+      else if(vsfx.equals("내")&&entry.getFeature(WordEntry.IDX_NE)!='1') return false;
+      score = AnalysisOutput.SCORE_CORRECT; // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.      
     }else {
-      o.setScore(AnalysisOutput.SCORE_ANALYSIS); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.
+      score = AnalysisOutput.SCORE_ANALYSIS; // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.
     }
     
-    candidates.add(o);
+    AnalysisOutput output = newOutput(o);
+    output.setXverb(xverb);
+    output.setVsfx(vsfx);
+    output.setStem(stem);
+    output.setPatn(patn);
+    output.setPos(PatternConstants.POS_NOUN);
+    output.setScore(score);
+    candidates.add(output);
       
     return true;
   }
+  
+  /**
+   * the result of a rule. it shares the eomi list with the split, which the rules above add the eomis to.
+   */
+  private static AnalysisOutput newOutput(AnalysisOutput o) throws MorphException {
+    try {
+      return o.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new MorphException(e.getMessage(),e);
+    }
+  }
     
      
   /**
@@ -327,14 +336,12 @@ public class NounUtil {
       return nList;
     }
 
-    for(int i=1;i<str.length();i++) {    
-      String sub = str.substring(0,i+1);    
-      if(!DictionaryUtil.findWithPrefix(sub).hasNext()) break;
-      WordEntry entry = DictionaryUtil.getAllNoun(sub);  
-      if(entry!=null) {          
-        nList.add(entry);
+    final List<WordEntry> nouns = nList;
+    DictionaryUtil.commonPrefixSearch(str, 0, str.length(), new PrefixMatchHandler<WordEntry>() {
+      public void match(int end, WordEntry entry) {
+        if(end>=2&&DictionaryUtil.isAllNoun(entry)) nouns.add(entry);
       }
-    }
+    });
 
     return nList;      
   }
@@ -381,11 +388,10 @@ public class NounUtil {
         
       String josa = input.substring(i);
 
-      char[] feature =  SyllableUtil.getFeature(josa.charAt(0));    
       if(josaFlag&&DictionaryUtil.existJosa(josa)) return true;
   
         
-      if(josaFlag&&feature[SyllableUtil.IDX_JOSA2]=='0') josaFlag = false;        
+      if(josaFlag&&!SyllableUtil.hasFeature(josa.charAt(0), SyllableUtil.IDX_JOSA2)) josaFlag = false;        
       if(!josaFlag) break;
     }
       
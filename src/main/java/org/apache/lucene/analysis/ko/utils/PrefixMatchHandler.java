@@ -0,0 +1,32 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * receives the dictionary entries found by a common prefix search,
+ * see {@link DictionaryUtil#commonPrefixSearch(CharSequence, int, int, PrefixMatchHandler)}.
+ */
+public interface PrefixMatchHandler<V> {
+
+  /**
+   * called for every entry whose key is text[offset,end), shortest first.
+   * @param end   the end position (exclusive) of the entry in the searched text
+   * @param value the entry
+   */
+  public void match(int end, V value);
+}
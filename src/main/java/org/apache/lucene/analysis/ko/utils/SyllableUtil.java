@@ -19,59 +19,89 @@ package org.apache.lucene.analysis.ko.utils;
 
 import org.apache.lucene.analysis.ko.morph.MorphException;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class SyllableUtil {
 
-  public static int IDX_JOSA1 = 0; // 조사의 첫음절로 사용되는 음절 49개
-  public static int IDX_JOSA2 = 1; // 조사의 두 번째 이상의 음절로 사용되는 음절 58개
-  public static int IDX_EOMI1 = 2; // 어미의 첫음절로 사용되는 음절 72개
-  public static int IDX_EOMI2 = 3; // 어미의 두 번째 이상의 음절로 사용되는 음절 105개
-  public static int IDX_YONG1 = 4; // 1음절 용언에 사용되는 음절 362개
-  public static int IDX_YONG2 = 5; // 2음절 용언의 마지막 음절로 사용되는 음절 316개
-  public static int IDX_YONG3 = 6; // 3음절 이상 용언의 마지막 음절로 사용되는 음절 195개
-  public static int IDX_CHEON1 = 7; // 1음절 체언에 사용되는 음절 680개
-  public static int IDX_CHEON2 = 8; // 2음절 체언의 마지막 음절로 사용되는 음절 916개
-  public static int IDX_CHEON3 = 9; // 3음절 체언의 마지막 음절로 사용되는 음절 800개
-  public static int IDX_CHEON4 = 10; // 4음절 체언의 마지막 음절로 사용되는 음절 610개
-  public static int IDX_CHEON5 = 11; // 5음절 이상 체언의 마지막 음절로 사용되는 음절 330개
-  public static int IDX_BUSA1 = 12; // 1음절 부사의 마지막 음절로 사용되는 음절 191개
-  public static int IDX_BUSA2 = 13; // 2음절 부사의 마지막 음절로 사용되는 음절 519개
-  public static int IDX_BUSA3 = 14; // 3음절 부사의 마지막 음절로 사용되는 음절 139개
-  public static int IDX_BUSA4 = 15; // 4음절 부사의 마지막 음절로 사용되는 음절 366개
-  public static int IDX_BUSA5 = 16; // 5음절 부사의 마지막 음절로 사용되는 음절 79개
-  public static int IDX_PRONOUN = 17; // 대명사의 마지막 음절로 사용되는 음절 77개
-  public static int IDX_EXCLAM = 18; // 관형사와 감탄사의 마지막 음절로 사용되는 음절 241개
+  public static final int IDX_JOSA1 = 0; // 조사의 첫음절로 사용되는 음절 49개
+  public static final int IDX_JOSA2 = 1; // 조사의 두 번째 이상의 음절로 사용되는 음절 58개
+  public static final int IDX_EOMI1 = 2; // 어미의 첫음절로 사용되는 음절 72개
+  public static final int IDX_EOMI2 = 3; // 어미의 두 번째 이상의 음절로 사용되는 음절 105개
+  public static final int IDX_YONG1 = 4; // 1음절 용언에 사용되는 음절 362개
+  public static final int IDX_YONG2 = 5; // 2음절 용언의 마지막 음절로 사용되는 음절 316개
+  public static final int IDX_YONG3 = 6; // 3음절 이상 용언의 마지막 음절로 사용되는 음절 195개
+  public static final int IDX_CHEON1 = 7; // 1음절 체언에 사용되는 음절 680개
+  public static final int IDX_CHEON2 = 8; // 2음절 체언의 마지막 음절로 사용되는 음절 916개
+  public static final int IDX_CHEON3 = 9; // 3음절 체언의 마지막 음절로 사용되는 음절 800개
+  public static final int IDX_CHEON4 = 10; // 4음절 체언의 마지막 음절로 사용되는 음절 610개
+  public static final int IDX_CHEON5 = 11; // 5음절 이상 체언의 마지막 음절로 사용되는 음절 330개
+  public static final int IDX_BUSA1 = 12; // 1음절 부사의 마지막 음절로 사용되는 음절 191개
+  public static final int IDX_BUSA2 = 13; // 2음절 부사의 마지막 음절로 사용되는 음절 519개
+  public static final int IDX_BUSA3 = 14; // 3음절 부사의 마지막 음절로 사용되는 음절 139개
+  public static final int IDX_BUSA4 = 15; // 4음절 부사의 마지막 음절로 사용되는 음절 366개
+  public static final int IDX_BUSA5 = 16; // 5음절 부사의 마지막 음절로 사용되는 음절 79개
+  public static final int IDX_PRONOUN = 17; // 대명사의 마지막 음절로 사용되는 음절 77개
+  public static final int IDX_EXCLAM = 18; // 관형사와 감탄사의 마지막 음절로 사용되는 음절 241개
   
-  public static int IDX_YNPNA = 19; // (용언+'-ㄴ')에 의하여 생성되는 음절 129개
-  public static int IDX_YNPLA = 20; // (용언+'-ㄹ')에 의해 생성되는 음절 129개
-  public static int IDX_YNPMA = 21; // (용언+'-ㅁ')에 의해 생성되는 음절 129개
-  public static int IDX_YNPBA = 22; // (용언+'-ㅂ')에 의해 생성되는 음절 129개
-  public static int IDX_YNPAH = 23; // 모음으로 끝나는 음절 129개중 'ㅏ/ㅓ/ㅐ/ㅔ/ㅕ'로 끝나는 것이 선어말 어미 '-었-'과 결합할 때 생성되는 음절
-  public static int IDX_YNPOU = 24; // 모음 'ㅗ/ㅜ'로 끝나는 음절이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
-  public static int IDX_YNPEI = 25; // 모음 'ㅣ'로 끝나는 용언이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
-  public static int IDX_YNPOI = 26; // 모음 'ㅚ'로 끝나는 용언이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
-  public static int IDX_YNPLN = 27; // 받침 'ㄹ'로 끝나는 용언이 어미 '-ㄴ'과 결합할 때 생성되는 음절
-  public static int IDX_IRRLO = 28; // '러' 불규칙(8개)에 의하여 생성되는 음절 : 러, 렀
-  public static int IDX_IRRPLE = 29; // '르' 불규칙(193개)에 의하여 생성되는 음절 
-  public static int IDX_IRROO = 30; // '우' 불규칙에 의하여 생성되는 음절 : 퍼, 펐
-  public static int IDX_IRROU = 31; // '어' 불규칙에 의하여 생성되는 음절 : 해, 했
-  public static int IDX_IRRDA = 32; // 'ㄷ' 불규칙(37개)에 의하여 생성되는 음절
-  public static int IDX_IRRBA = 33; // 'ㅂ' 불규칙(446개)에 의하여 생성되는 음절
-  public static int IDX_IRRSA = 34; // 'ㅅ' 불규칙(39개)에 의하여 생성되는 음절
-  public static int IDX_IRRHA = 35; // 'ㅎ' 불규칙(96개)에 의하여 생성되는 음절 
-  public static int IDX_PEND = 36; // 선어말 어미 : 시 셨 았 었 였 겠
+  public static final int IDX_YNPNA = 19; // (용언+'-ㄴ')에 의하여 생성되는 음절 129개
+  public static final int IDX_YNPLA = 20; // (용언+'-ㄹ')에 의해 생성되는 음절 129개
+  public static final int IDX_YNPMA = 21; // (용언+'-ㅁ')에 의해 생성되는 음절 129개
+  public static final int IDX_YNPBA = 22; // (용언+'-ㅂ')에 의해 생성되는 음절 129개
+  public static final int IDX_YNPAH = 23; // 모음으로 끝나는 음절 129개중 'ㅏ/ㅓ/ㅐ/ㅔ/ㅕ'로 끝나는 것이 선어말 어미 '-었-'과 결합할 때 생성되는 음절
+  public static final int IDX_YNPOU = 24; // 모음 'ㅗ/ㅜ'로 끝나는 음절이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
+  public static final int IDX_YNPEI = 25; // 모음 'ㅣ'로 끝나는 용언이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
+  public static final int IDX_YNPOI = 26; // 모음 'ㅚ'로 끝나는 용언이 '아/어'로 시작되는 어미나 선어말 어미 '-었-'과 결합할 때 생성되는 음절
+  public static final int IDX_YNPLN = 27; // 받침 'ㄹ'로 끝나는 용언이 어미 '-ㄴ'과 결합할 때 생성되는 음절
+  public static final int IDX_IRRLO = 28; // '러' 불규칙(8개)에 의하여 생성되는 음절 : 러, 렀
+  public static final int IDX_IRRPLE = 29; // '르' 불규칙(193개)에 의하여 생성되는 음절 
+  public static final int IDX_IRROO = 30; // '우' 불규칙에 의하여 생성되는 음절 : 퍼, 펐
+  public static final int IDX_IRROU = 31; // '어' 불규칙에 의하여 생성되는 음절 : 해, 했
+  public static final int IDX_IRRDA = 32; // 'ㄷ' 불규칙(37개)에 의하여 생성되는 음절
+  public static final int IDX_IRRBA = 33; // 'ㅂ' 불규칙(446개)에 의하여 생성되는 음절
+  public static final int IDX_IRRSA = 34; // 'ㅅ' 불규칙(39개)에 의하여 생성되는 음절
+  public static final int IDX_IRRHA = 35; // 'ㅎ' 불규칙(96개)에 의하여 생성되는 음절 
+  public static final int IDX_PEND = 36; // 선어말 어미 : 시 셨 았 었 였 겠
   
-  public static int IDX_YNPEOMI = 37; // 용언이 어미와 결합할 때 생성되는 음절의 수 734개
+  public static final int IDX_YNPEOMI = 37; // 용언이 어미와 결합할 때 생성되는 음절의 수 734개
   
   /**   용언의 표층 형태로만 사용되는 음절 */
-  public static int IDX_WDSURF = 38; 
+  public static final int IDX_WDSURF = 38; 
   
-  public static int IDX_EOGAN = 39; // 어미 또는 어미의 변형으로 존재할 수 있는 음 (즉 IDX_EOMI 이거나 IDX_YNPNA 이후에 1이 있는 음절)
+  public static final int IDX_EOGAN = 39; // 어미 또는 어미의 변형으로 존재할 수 있는 음 (즉 IDX_EOMI 이거나 IDX_YNPNA 이후에 1이 있는 음절)
   
-  private static List<char[]> Syllables;  // 음절특성 정보
+  private static final int FEATURE_COUNT = 40;
+  
+  /**
+   * 음절특성 정보. '가'(0xAC00)부터 한 음절에 하나씩, IDX_* 번째 비트가 그 특성의 유무를 나타낸다.
+   * 마지막 값은 '힣' 다음의 빈 특성으로, 한글음절이 아닌 글자에 사용된다.
+   * 처음 사용될 때 읽으며, 읽지 못하면 다음 호출에서 다시 시도한다.
+   */
+  private static final LazyResource<long[]> FEATURES = new LazyResource<long[]>() {
+    protected long[] load() throws MorphException {
+      return loadFeatures();
+    }
+  };
+  
+  /**
+   * load the syllable features if they have not been loaded yet.
+   */
+  static void warmUp() throws MorphException {
+    FEATURES.get();
+  }
+  
+  /**
+   * 음절이 주어진 특성을 가지는지 확인한다.
+   * 영자 또는 숫자일 경우는 모두 해당이 안되므로 가장 마지막 글자의 음절특성으로 확인한다.
+   * 
+   * @param syl  음절 하나
+   * @param idx  IDX_* 특성 인덱스
+   * @throws MorphException 음절특성 파일을 읽지 못한 경우
+   */
+  public static boolean hasFeature(char syl, int idx) throws MorphException {
+    long[] features = FEATURES.get();
+    int i = syl - 0xAC00;
+    if(i<0||i>=features.length) i = features.length-1;
+    return (features[i] & (1L<<idx)) != 0;
+  }
   
   /**
    * 인덱스 값에 해당하는 음절의 특성을 반환한다.
@@ -82,12 +112,15 @@ public class SyllableUtil {
    */
   public static char[] getFeature(int idx)  throws MorphException {
     
-    if(Syllables==null || Syllables.size()<1) Syllables = getSyllableFeature();
-  
-    if(idx<0||idx>=Syllables.size()) 
-      return Syllables.get(Syllables.size()-1);
-    else 
-      return Syllables.get(idx);
+    long[] all = FEATURES.get();
+    if(idx<0||idx>=all.length) idx = all.length-1;
+    
+    long bits = all[idx];
+    char[] features = new char[FEATURE_COUNT];
+    for(int i=0;i<FEATURE_COUNT;i++) {
+      features[i] = (bits & (1L<<i)) != 0 ? '1' : '0';
+    }
+    return features;
     
   }
   
@@ -105,26 +138,44 @@ public class SyllableUtil {
   
   /**
    * 음절정보특성을 파일에서 읽는다.
-   * 
-   * @throws MorphException throw exception
    */  
-  private static List<char[]> getSyllableFeature() throws MorphException {
+  private static long[] loadFeatures() throws MorphException {
   
-    try{
-      Syllables = new ArrayList<char[]>();
-
-      List<String> line = FileUtil.readLines(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_SYLLABLE_FEATURE),"UTF-8");  
-      for(int i=0;i<line.size();i++) {        
-        if(i!=0)
-          Syllables.add(line.get(i).toCharArray());
-      }
-    }catch(IOException e) {
-      throw new MorphException(e.getMessage());
-    } 
-
-    return Syllables;
+    FeatureRows rows = new FeatureRows();
+    DictionaryReader.read(KoreanEnv.getInstance().getValue(KoreanEnv.FILE_SYLLABLE_FEATURE), rows);
+    if(rows.count<1) throw new MorphException("syllable feature is empty");
+    
+    long[] features = new long[rows.count];
+    System.arraycopy(rows.features, 0, features, 0, rows.count);
+    return features;
   }  
   
+  /**
+   * collects the rows of the syllable features, the first line is the header.
+   */
+  private static class FeatureRows implements LineHandler {
+    
+    private long[] features = new long[1<<14];
+    
+    private int count = 0;
+    
+    public void line(DictionaryReader.Line row) {
+      if(row.getIndex()==0) return;
+      
+      long bits = 0;
+      for(int j=0;j<FEATURE_COUNT&&j<row.length();j++) {
+        if(row.charAt(j)=='1') bits |= 1L<<j;
+      }
+      
+      if(count==features.length) {
+        long[] larger = new long[count*2];
+        System.arraycopy(features, 0, larger, 0, count);
+        features = larger;
+      }
+      features[count++] = bits;
+    }
+  }
+  
   public static boolean isAlpanumeric(char ch) {
     return (ch>='0'&&ch<='z');
   }
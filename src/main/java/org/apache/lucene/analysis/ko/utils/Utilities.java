@@ -17,12 +17,56 @@ package org.apache.lucene.analysis.ko.utils;
  * limitations under the License.
  */
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
 import org.apache.lucene.analysis.ko.morph.MorphException;
 import org.apache.lucene.analysis.ko.morph.PatternConstants;
 
 public class Utilities {
 
+  // the morphemes of a template
+  private static final char M_JOSA = 0;
+  private static final char M_VSFX = 1;
+  private static final char M_POMI = 2; // written only when it is not null
+  private static final char M_EOMI = 3;
+  private static final char M_ELIST0 = 4;
+  private static final char M_ELIST1 = 5;
+  private static final char M_XVERB = 6;
+
+  private static final char[] NO_TEMPLATE = new char[0];
+
+  /**
+   * the morphemes after the stem and the noun suffix, by pattern.
+   * a template is a sequence of pairs, the morpheme and its part of speech.
+   */
+  private static final char[][] TEMPLATES = new char[PatternConstants.PTN_ZZZ+1][];
+
+  static {
+    template(PatternConstants.PTN_NJ, M_JOSA,PatternConstants.POS_JOSA);
+    template(PatternConstants.PTN_ADVJ, M_JOSA,PatternConstants.POS_JOSA);
+    template(PatternConstants.PTN_NSM, M_VSFX,PatternConstants.POS_SFX_V, M_POMI,PatternConstants.POS_PEOMI,
+        M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_NSMJ, M_VSFX,PatternConstants.POS_SFX_V, M_POMI,PatternConstants.POS_PEOMI,
+        M_ELIST0,PatternConstants.POS_NEOMI, M_JOSA,PatternConstants.POS_JOSA);
+    template(PatternConstants.PTN_NSMXM, M_VSFX,PatternConstants.POS_SFX_V, M_ELIST0,PatternConstants.POS_COPULA,
+        M_XVERB,PatternConstants.POS_XVERB, M_POMI,PatternConstants.POS_PEOMI, M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_NJCM, M_JOSA,PatternConstants.POS_JOSA, M_ELIST0,PatternConstants.POS_SFX_V,
+        M_POMI,PatternConstants.POS_PEOMI, M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_NSMXMJ, M_VSFX,PatternConstants.POS_SFX_V, M_ELIST1,PatternConstants.POS_COPULA,
+        M_XVERB,PatternConstants.POS_XVERB, M_POMI,PatternConstants.POS_PEOMI, M_ELIST0,PatternConstants.POS_NEOMI,
+        M_JOSA,PatternConstants.POS_JOSA);
+    template(PatternConstants.PTN_VM, M_POMI,PatternConstants.POS_PEOMI, M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_VMJ, M_ELIST0,PatternConstants.POS_NEOMI, M_JOSA,PatternConstants.POS_JOSA);
+    template(PatternConstants.PTN_VMCM, M_ELIST0,PatternConstants.POS_NEOMI, M_ELIST1,PatternConstants.POS_SFX_N,
+        M_POMI,PatternConstants.POS_PEOMI, M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_VMXM, M_ELIST0,PatternConstants.POS_COPULA, M_XVERB,PatternConstants.POS_XVERB,
+        M_POMI,PatternConstants.POS_PEOMI, M_EOMI,PatternConstants.POS_EOMI);
+    template(PatternConstants.PTN_VMXMJ, M_ELIST1,PatternConstants.POS_COPULA, M_XVERB,PatternConstants.POS_XVERB,
+        M_POMI,PatternConstants.POS_PEOMI, M_ELIST0,PatternConstants.POS_NEOMI, M_JOSA,PatternConstants.POS_JOSA);
+  }
+
   public static String arrayToString(String[] strs) {
     StringBuffer sb = new StringBuffer();
     for(String str:strs) {
@@ -39,79 +83,165 @@ public class Utilities {
     }
   }
   
+  /**
+   * @return the morphemes of the output as text, as written by {@link #writeTo(AnalysisOutput, Appendable)}
+   */
   public static String buildOutputString(AnalysisOutput o) {
-    
-    StringBuffer buff = new StringBuffer();
-  
-    buff.append(MorphUtil.buildTypeString(o.getStem(),o.getPos()));
-    if(o.getNsfx()!=null)
-      buff.append(",").append(MorphUtil.buildTypeString(o.getNsfx(),PatternConstants.POS_SFX_N));
-    
-    if(o.getPatn()==PatternConstants.PTN_NJ || o.getPatn()==PatternConstants.PTN_ADVJ) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));
-    }else if(o.getPatn()==PatternConstants.PTN_NSM) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getVsfx(),PatternConstants.POS_SFX_V));
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));      
-    }else if(o.getPatn()==PatternConstants.PTN_NSMJ) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getVsfx(),PatternConstants.POS_SFX_V));
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_NEOMI));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));
-    }else if(o.getPatn()==PatternConstants.PTN_NSMXM) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getVsfx(),PatternConstants.POS_SFX_V));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_COPULA));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getXverb(),PatternConstants.POS_XVERB));    
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));
-    }else if(o.getPatn()==PatternConstants.PTN_NJCM) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_SFX_V));
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));  
-    }else if(o.getPatn()==PatternConstants.PTN_NSMXMJ) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getVsfx(),PatternConstants.POS_SFX_V));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(1),PatternConstants.POS_COPULA));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getXverb(),PatternConstants.POS_XVERB));  
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));  
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_NEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));        
-    }else if(o.getPatn()==PatternConstants.PTN_VM) {
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));        
-    }else if(o.getPatn()==PatternConstants.PTN_VMJ) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_NEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));        
-    }else if(o.getPatn()==PatternConstants.PTN_VMCM) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_NEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(1),PatternConstants.POS_SFX_N));      
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));        
-    }else if(o.getPatn()==PatternConstants.PTN_VMXM) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_COPULA));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getXverb(),PatternConstants.POS_XVERB));
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getEomi(),PatternConstants.POS_EOMI));        
-    }else if(o.getPatn()==PatternConstants.PTN_VMXMJ) {
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(1),PatternConstants.POS_COPULA));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getXverb(),PatternConstants.POS_XVERB));  
-      if(o.getPomi()!=null) 
-        buff.append(",").append(MorphUtil.buildTypeString(o.getPomi(),PatternConstants.POS_PEOMI));  
-      buff.append(",").append(MorphUtil.buildTypeString(o.getElist().get(0),PatternConstants.POS_NEOMI));      
-      buff.append(",").append(MorphUtil.buildTypeString(o.getJosa(),PatternConstants.POS_JOSA));                
+    StringBuilder buff = new StringBuilder();
+    try {
+      writeTo(o, buff);
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // StringBuilder never throws it
     }
     return buff.toString();
-    
   }
-  
+
+  /**
+   * write the morphemes of the output as text, <code>stem(pos),morpheme(pos),...</code>.
+   * the morphemes after the stem follow a template table indexed by the pattern.
+   * nothing is allocated, so a reused {@link StringBuilder} or {@link java.nio.CharBuffer} makes
+   * the serialization free of garbage.
+   * @param o   the analysis output
+   * @param out where the text is written
+   * @throws IOException  when the appendable throws it
+   */
+  public static void writeTo(AnalysisOutput o, Appendable out) throws IOException {
+    appendMorpheme(out, o.getStem(), o.getPos());
+    if(o.getNsfx()!=null) {
+      out.append(',');
+      appendMorpheme(out, o.getNsfx(), PatternConstants.POS_SFX_N);
+    }
+
+    char[] template = template(o.getPatn());
+    for(int i=0;i<template.length;i+=2) {
+      String word = morpheme(o, template[i]);
+      if(word==null&&template[i]==M_POMI) continue;
+      out.append(',');
+      appendMorpheme(out, word, template[i+1]);
+    }
+  }
+
+  private static void appendMorpheme(Appendable out, String word, char pos) throws IOException {
+    out.append(word==null ? "null" : word).append('(').append(pos).append(')');
+  }
+
+  /**
+   * write the morphemes of the output in a compact binary form, for a payload for example.
+   * <pre>
+   *   pattern(1 byte) count(1 byte) { pos(1 byte) length(vint) chars(2 bytes each) }*
+   * </pre>
+   * a {@link java.io.ByteArrayOutputStream} reset for each output can be reused.
+   * {@link #decode(byte[], int, int, Appendable)} restores the text of {@link #writeTo(AnalysisOutput, Appendable)}.
+   * @param o   the analysis output
+   * @param out where the bytes are written
+   * @return the number of bytes written
+   * @throws IOException  when the stream throws it
+   */
+  public static int encode(AnalysisOutput o, OutputStream out) throws IOException {
+    char[] template = template(o.getPatn());
+
+    int count = 1;
+    if(o.getNsfx()!=null) count++;
+    for(int i=0;i<template.length;i+=2) {
+      if(template[i]!=M_POMI||o.getPomi()!=null) count++;
+    }
+
+    out.write(o.getPatn());
+    out.write(count);
+    int size = 2 + encodeMorpheme(out, o.getStem(), o.getPos());
+    if(o.getNsfx()!=null) size += encodeMorpheme(out, o.getNsfx(), PatternConstants.POS_SFX_N);
+    for(int i=0;i<template.length;i+=2) {
+      String word = morpheme(o, template[i]);
+      if(word==null&&template[i]==M_POMI) continue;
+      size += encodeMorpheme(out, word, template[i+1]);
+    }
+    return size;
+  }
+
+  private static int encodeMorpheme(OutputStream out, String word, char pos) throws IOException {
+    if(word==null) word = "null";
+    int len = word.length();
+    int size = 1 + 2*len;
+
+    out.write(pos);
+    int v = len;
+    while(v>0x7F) {
+      out.write((v&0x7F)|0x80);
+      v >>>= 7;
+      size++;
+    }
+    out.write(v);
+    size++;
+
+    for(int i=0;i<len;i++) {
+      char c = word.charAt(i);
+      out.write(c>>>8);
+      out.write(c);
+    }
+    return size;
+  }
+
+  /**
+   * write the text of the morphemes encoded by {@link #encode(AnalysisOutput, OutputStream)}.
+   * @param buf the encoded bytes
+   * @param off where the encoded output starts
+   * @param len the length of the encoded output
+   * @param out where the text is written
+   * @throws IOException  when the appendable throws it
+   * @throws IllegalArgumentException  when the bytes are truncated or not an encoded output
+   */
+  public static void decode(byte[] buf, int off, int len, Appendable out) throws IOException {
+    if(off<0||len<0||off+len>buf.length) throw new IllegalArgumentException("off "+off+" and len "+len+" are out of the buffer");
+    int end = off+len;
+    if(len<2) throw new IllegalArgumentException("truncated header at "+off);
+    int pos = off+1; // the pattern
+    int count = buf[pos++]&0xFF;
+    for(int n=0;n<count;n++) {
+      if(n>0) out.append(',');
+      if(pos>=end) throw new IllegalArgumentException("truncated morpheme at "+pos);
+      char type = (char)(buf[pos++]&0xFF);
+
+      int length = 0;
+      int shift = 0;
+      byte b;
+      do {
+        if(pos>=end) throw new IllegalArgumentException("truncated morpheme length at "+pos);
+        if(shift>28) throw new IllegalArgumentException("bad morpheme length at "+pos);
+        b = buf[pos++];
+        length |= (b&0x7F)<<shift;
+        shift += 7;
+      } while(b<0);
+
+      if(length<0||length>(end-pos)/2) throw new IllegalArgumentException("truncated morpheme at "+pos);
+      for(int i=0;i<length;i++,pos+=2) {
+        out.append((char)(((buf[pos]&0xFF)<<8)|(buf[pos+1]&0xFF)));
+      }
+      out.append('(').append(type).append(')');
+    }
+  }
+
+  private static void template(int patn, char... template) {
+    TEMPLATES[patn] = template;
+  }
+
+  private static char[] template(int patn) {
+    if(patn<0||patn>=TEMPLATES.length||TEMPLATES[patn]==null) return NO_TEMPLATE;
+    return TEMPLATES[patn];
+  }
+
+  private static String morpheme(AnalysisOutput o, char m) {
+    switch(m) {
+      case M_JOSA : return o.getJosa();
+      case M_VSFX : return o.getVsfx();
+      case M_POMI : return o.getPomi();
+      case M_EOMI : return o.getEomi();
+      case M_ELIST0 : return o.getElist().get(0);
+      case M_ELIST1 : return o.getElist().get(1);
+      case M_XVERB : return o.getXverb();
+      default : throw new IllegalArgumentException("unknown morpheme : "+(int)m);
+    }
+  }
+
   // -----------------------------------------------------------------------
   /**
    * <p>
@@ -82,10 +82,10 @@ public class VerbUtil {
    
   public static boolean constraintVerb(String start, String end) {
      
-    char[] schs = MorphUtil.decompose(start.charAt(start.length()-1));
-    char[] echs = MorphUtil.decompose(end.charAt(0));
+    char sch = start.charAt(start.length()-1);
+    char ech = end.charAt(0);
      
-    if(schs.length==3&&schs[2]=='ㄹ'&&echs[0]=='ㄹ') return false;
+    if(MorphUtil.jongseong(sch)=='ㄹ'&&MorphUtil.choseong(ech)=='ㄹ') return false;
      
     return true;
   }
@@ -95,33 +95,37 @@ public class VerbUtil {
    */
   public static boolean ananlysisNJCM(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
  
-    int strlen = o.getStem().length();
-    boolean success = false;
+    String stem = o.getStem();
+    int strlen = stem.length();
+    String josa;
      
-    if(strlen>3&&(o.getStem().endsWith("에서이")||o.getStem().endsWith("부터이"))) {
-      o.addElist(o.getStem().substring(strlen-1));
-      o.setJosa(o.getStem().substring(strlen-3,strlen-1));
-      o.setStem(o.getStem().substring(0,strlen-3));
-      success = true;
-    }else if(strlen>5&&(o.getStem().endsWith("에서부터이"))) {
-      o.addElist(o.getStem().substring(strlen-1));
-      o.setJosa(o.getStem().substring(strlen-5,strlen-1));
-      o.setStem(o.getStem().substring(0,strlen-5));
-      success = true;
+    if(strlen>3&&(stem.endsWith("에서이")||stem.endsWith("부터이"))) {
+      o.addElist(stem.substring(strlen-1));
+      josa = stem.substring(strlen-3,strlen-1);
+      stem = stem.substring(0,strlen-3);
+    }else if(strlen>5&&(stem.endsWith("에서부터이"))) {
+      o.addElist(stem.substring(strlen-1));
+      josa = stem.substring(strlen-5,strlen-1);
+      stem = stem.substring(0,strlen-5);
+    }else {
+      return false;
     }
-    if(!success) return false;
     
-    WordEntry entry = null;
-    if(success&&(entry=DictionaryUtil.getAllNoun(o.getStem()))!=null) { 
+    AnalysisOutput output = newOutput(o);
+    output.setJosa(josa);
+    output.setStem(stem);
+    
+    WordEntry entry = DictionaryUtil.getAllNoun(stem);
+    if(entry!=null) { 
       if(entry.getFeature(WordEntry.IDX_NOUN)=='2') {
-        o.setCNoun(entry.getCompounds());
+        output.setCNoun(entry.getCompounds());
       }
-      o.setScore(AnalysisOutput.SCORE_CORRECT);
+      output.setScore(AnalysisOutput.SCORE_CORRECT);
     }
      
-    o.setPatn(PatternConstants.PTN_NJCM);
-    o.setPos(PatternConstants.POS_NOUN);  
-    candidates.add(o);
+    output.setPatn(PatternConstants.PTN_NJCM);
+    output.setPos(PatternConstants.POS_NOUN);  
+    candidates.add(output);
      
     return true;
   }
@@ -134,42 +138,47 @@ public class VerbUtil {
    */
   public static boolean ananlysisNSM(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
 
-	if(o.getStem()==null || o.getStem().length()==0) return false;
+    String stem = o.getStem();
+	if(stem==null || stem.length()==0) return false;
 	
-    if(o.getStem().endsWith("스러우")) o.setStem(o.getStem().substring(0,o.getStem().length()-3)+"스럽");
+    if(stem.endsWith("스러우")) stem = stem.substring(0,stem.length()-3)+"스럽";
 
-    int idxVbSfix = VerbUtil.endsWithVerbSuffix(o.getStem());
-    WordEntry entry = DictionaryUtil.getAllNoun(o.getStem());
+    int idxVbSfix = VerbUtil.endsWithVerbSuffix(stem);
+    WordEntry entry = DictionaryUtil.getAllNoun(stem);
    
-    char[] chrs = MorphUtil.decompose(o.getStem().charAt(o.getStem().length()-1));
+    String vsfx;
+    char last = stem.charAt(stem.length()-1);
     if(wiAbbrevs.get(o.getEomi())==null||entry==null) {
       if(idxVbSfix<1) return false;     
-      o.setVsfx(o.getStem().substring(idxVbSfix));
-      o.setStem(o.getStem().substring(0,idxVbSfix));
-      entry = DictionaryUtil.getAllNoun(o.getStem());
+      vsfx = stem.substring(idxVbSfix);
+      stem = stem.substring(0,idxVbSfix);
+      entry = DictionaryUtil.getAllNoun(stem);
     } else { // 이 축약인 경우
-      if(entry==null || chrs.length==3) return false;
-      o.setVsfx("이");
-      o.setStem(o.getStem());
+      if(entry==null || MorphUtil.jongseong(last)!=0) return false;
+      vsfx = "이";
     }
 
-    o.setPatn(PatternConstants.PTN_NSM);
-    o.setPos(PatternConstants.POS_NOUN);
-        
+    int score;
     if(entry!=null) {
       if(entry.getFeature(WordEntry.IDX_NOUN)=='0') return false;
-      else if(o.getVsfx().equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
-      else if(o.getVsfx().equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;
-      else if(o.getVsfx().equals("내")&&entry.getFeature(WordEntry.IDX_NE)!='1') return false;
-      else if(o.getVsfx().equals("이")&&o.getEomi().equals("어")) return false;
-      o.setScore(AnalysisOutput.SCORE_CORRECT); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.      
+      else if(vsfx.equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
+      else if(vsfx.equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;
+      else if(vsfx.equals("내")&&entry.getFeature(WordEntry.IDX_NE)!='1') return false;
+      else if(vsfx.equals("이")&&o.getEomi().equals("어")) return false;
+      score = AnalysisOutput.SCORE_CORRECT; // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.      
     }else {
-      o.setScore(AnalysisOutput.SCORE_ANALYSIS); // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.
+      score = AnalysisOutput.SCORE_ANALYSIS; // '입니다'인 경우 인명 등 미등록어가 많이 발생되므로 분석성공으로 가정한다.
     }
   
-    candidates.add(o);
+    AnalysisOutput output = newOutput(o);
+    output.setVsfx(vsfx);
+    output.setStem(stem);
+    output.setPatn(PatternConstants.PTN_NSM);
+    output.setPos(PatternConstants.POS_NOUN);
+    output.setScore(score);
+    candidates.add(output);
 
-    return (o.getScore()==AnalysisOutput.SCORE_CORRECT);
+    return (score==AnalysisOutput.SCORE_CORRECT);
 
   }
    
@@ -192,54 +201,58 @@ public class VerbUtil {
     int idxVbSfix = VerbUtil.endsWithVerbSuffix(stomis[0]);
     if(idxVbSfix==-1) return false;
     
-    o.setXverb(o.getStem().substring(idxXVerb));
-    o.setVsfx(stomis[0].substring(idxVbSfix));
-    o.setStem(stomis[0].substring(0,idxVbSfix));
-    o.setPatn(PatternConstants.PTN_NSMXM);
-    o.setPos(PatternConstants.POS_NOUN);
-    WordEntry entry = DictionaryUtil.getNoun(o.getStem());
+    String vsfx = stomis[0].substring(idxVbSfix);
+    String stem = stomis[0].substring(0,idxVbSfix);
+    WordEntry entry = DictionaryUtil.getNoun(stem);
 //    if(entry==null&&NounUtil.confirmCNoun(o)&&o.getCNounList().size()>0)  {
 //      entry = DictionaryUtil.getNoun(o.getCNounList().get(o.getCNounList().size()-1));
 //    }
     if(entry==null) return false;  
     
-    if(o.getVsfx().equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
-    if(o.getVsfx().equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;        
+    if(vsfx.equals("하")&&entry.getFeature(WordEntry.IDX_DOV)!='1') return false;
+    if(vsfx.equals("되")&&entry.getFeature(WordEntry.IDX_BEV)!='1') return false;        
     
-    o.setScore(AnalysisOutput.SCORE_CORRECT);
+    AnalysisOutput output = newOutput(o);
+    output.setXverb(o.getStem().substring(idxXVerb));
+    output.setVsfx(vsfx);
+    output.setStem(stem);
+    output.setPatn(PatternConstants.PTN_NSMXM);
+    output.setPos(PatternConstants.POS_NOUN);
+    output.setScore(AnalysisOutput.SCORE_CORRECT);
     if(entry.getFeature(WordEntry.IDX_NOUN)=='2') {
-      o.setCNoun(entry.getCompounds());
+      output.setCNoun(entry.getCompounds());
     }
     
-    candidates.add(o);            
+    candidates.add(output);            
   
-    return (o.getScore()==AnalysisOutput.SCORE_CORRECT);     
+    return true;     
   }
    
   public static boolean analysisVMCM(AnalysisOutput o, List<AnalysisOutput> candidates) throws MorphException {
    
-    int strlen = o.getStem().length();
+    String stem = o.getStem();
+    int strlen = stem.length();
      
     if(strlen<2) return false;
      
-    if(!o.getStem().endsWith("이")) return false;
+    if(!stem.endsWith("이")) return false;
      
-    char[] chrs = MorphUtil.decompose(o.getStem().charAt(strlen-2));
+    char jong = MorphUtil.jongseong(stem.charAt(strlen-2));
     boolean success = false;
   
-    if(strlen>2&&o.getStem().endsWith("기이")) {
-      o.setStem(o.getStem().substring(0,strlen-2));
+    if(strlen>2&&stem.endsWith("기이")) {
+      stem = stem.substring(0,strlen-2);
       o.addElist("기");     
       success = true;       
-    } else if(chrs.length>2&&chrs[2]=='ㅁ'){
-      String[] eres = EomiUtil.splitEomi(o.getStem().substring(0,strlen-1), "");
+    } else if(jong=='ㅁ'){
+      String[] eres = EomiUtil.splitEomi(stem.substring(0,strlen-1), "");
       if(eres[0]==null) return false;
       
       o.addElist(eres[1]);       
       String[] irrs = IrregularUtil.restoreIrregularVerb(eres[0], eres[1]);
        
-      if(irrs!=null) o.setStem(irrs[0]);
-      else o.setStem(eres[0]);
+      if(irrs!=null) stem = irrs[0];
+      else stem = eres[0];
 
       success = true;
     }
@@ -247,11 +260,14 @@ public class VerbUtil {
     if(success) {    
      
       o.addElist("이");
-      if(DictionaryUtil.getVerb(o.getStem())!=null) {
-        o.setPos(PatternConstants.POS_VERB);
-        o.setPatn(PatternConstants.PTN_VMCM);
-        o.setScore(AnalysisOutput.SCORE_CORRECT);
-        candidates.add(o);
+      if(DictionaryUtil.getVerb(stem)!=null) {
+        AnalysisOutput output = newOutput(o);
+        output.setStem(stem);
+        output.setPos(PatternConstants.POS_VERB);
+        output.setPatn(PatternConstants.PTN_VMCM);
+        output.setScore(AnalysisOutput.SCORE_CORRECT);
+        candidates.add(output);
+        return true;
       }       
     }
      
@@ -270,8 +286,6 @@ public class VerbUtil {
 
     if(idxXVerb==-1) return false;
       
-    o.setXverb(o.getStem().substring(idxXVerb));
-    
     String eogan = o.getStem().substring(0,idxXVerb);
 
     String[] stomis = null;
@@ -283,22 +297,39 @@ public class VerbUtil {
       if(stomis[0]==null||!(stomis[1].startsWith("아")||stomis[1].startsWith("어"))) return false;
     }
 
+    String stem;
     String[] irrs = IrregularUtil.restoreIrregularVerb(stomis[0], stomis[1]);
     if(irrs!=null) {
-      o.setStem(irrs[0]);
+      stem = irrs[0];
       o.addElist(irrs[1]);
     } else {
-      o.setStem(stomis[0]);
+      stem = stomis[0];
       o.addElist(stomis[1]);
     }
 
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
-      o.setPos(PatternConstants.POS_VERB);
-      o.setPatn(PatternConstants.PTN_VMXM);
-      o.setScore(AnalysisOutput.SCORE_CORRECT);
-      candidates.add(o);
+    if(DictionaryUtil.getVerb(stem)!=null) {
+      AnalysisOutput output = newOutput(o);
+      output.setXverb(o.getStem().substring(idxXVerb));
+      output.setStem(stem);
+      output.setPos(PatternConstants.POS_VERB);
+      output.setPatn(PatternConstants.PTN_VMXM);
+      output.setScore(AnalysisOutput.SCORE_CORRECT);
+      candidates.add(output);
+      return true;
     }  
 
     return (o.getScore()==AnalysisOutput.SCORE_CORRECT);     
   }
+  
+  /**
+   * the result of a rule. it shares the josa and eomi lists with the split,
+   * which the rules above add the eomis to.
+   */
+  private static AnalysisOutput newOutput(AnalysisOutput o) throws MorphException {
+    try {
+      return o.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new MorphException(e.getMessage(),e);
+    }
+  }
 }
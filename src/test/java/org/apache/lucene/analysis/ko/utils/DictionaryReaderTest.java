@@ -0,0 +1,108 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.lucene.analysis.ko.morph.MorphException;
+import org.junit.Test;
+
+public class DictionaryReaderTest {
+
+  private static final String[] CASES = {
+    "", "a", ",", ",,", "a,b", "a,,,b", ",a", ",,a,b", "a,", "a,,", ",a,,b,,", " a , b ", "가,나,,다"
+  };
+
+  @Test
+  public void testSplitLikeStringSplit() {
+    for(String s : CASES) {
+      assertArrayEquals(s, s.split("[,]+"), DictionaryReader.split(s, ','));
+    }
+  }
+
+  @Test
+  public void testRandomSplitLikeStringSplit() {
+    Random random = new Random(42);
+    char[] alphabet = {'a', '가', ' ', ',', ':', '/'};
+    for(int round=0;round<10000;round++) {
+      char[] chars = new char[random.nextInt(12)];
+      for(int i=0;i<chars.length;i++) chars[i] = alphabet[random.nextInt(alphabet.length)];
+      String s = new String(chars);
+      for(char sep : new char[] {',', ':', '/'}) {
+        assertArrayEquals(s, s.split("["+sep+"]+"), DictionaryReader.split(s, sep));
+      }
+    }
+  }
+
+  @Test
+  public void testLineSplit() throws Exception {
+    final List<String> lines = read(":가,나::다 : \n");
+    assertEquals(Arrays.asList("0|:가,나::다 :|3|[, 가,나, 다 ]|[, 가,나, 다]"), lines);
+  }
+
+  @Test
+  public void testLines() throws Exception {
+    List<String> lines = read("가:1\n!comment\n\uFEFF!comment\n\n나:2\r\n다:3\r라::\r\n마");
+    assertEquals(Arrays.asList(
+        "0|가:1|2|[가, 1]|[가, 1]",
+        "1||1|[]|[]",
+        "2|나:2|2|[나, 2]|[나, 2]",
+        "3|다:3|2|[다, 3]|[다, 3]",
+        "4|라::|1|[라]|[라]",
+        "5|마|1|[마]|[마]"), lines);
+  }
+
+  @Test
+  public void testLongLine() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for(int i=0;i<5000;i++) sb.append("가나:");
+    String longLine = sb.toString();
+    List<String> lines = read("다\n"+longLine+"\n라");
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(1).startsWith("1|"+longLine+"|5000|[가나, 가나, "));
+    assertEquals("2|라|1|[라]|[라]", lines.get(2));
+  }
+
+  /**
+   * @return index|line|number of fields|fields|trimmed fields of each line, split by ':'
+   */
+  private static List<String> read(String text) throws Exception {
+    final List<String> lines = new ArrayList<String>();
+    DictionaryReader.read(new StringReader(text), new LineHandler() {
+      public void line(DictionaryReader.Line line) throws MorphException {
+        int count = line.trim().split(':');
+        List<String> fields = new ArrayList<String>();
+        List<String> trimmed = new ArrayList<String>();
+        for(int i=0;i<count;i++) {
+          fields.add(line.field(i));
+          trimmed.add(line.trimmedField(i));
+        }
+        lines.add(line.getIndex()+"|"+line+"|"+count+"|"+fields+"|"+trimmed);
+      }
+    });
+    return lines;
+  }
+}
@@ -0,0 +1,182 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class DoubleArrayTrieTest {
+
+  private static DoubleArrayTrie<String> build(String... keys) {
+    DoubleArrayTrie.Builder<String> builder = new DoubleArrayTrie.Builder<String>();
+    for(String key : keys) builder.add(key, key);
+    return builder.build();
+  }
+
+  private static List<String> list(Iterator<String> it) {
+    List<String> list = new ArrayList<String>();
+    while(it.hasNext()) list.add(it.next());
+    return list;
+  }
+
+  @Test
+  public void testGet() {
+    DoubleArrayTrie<String> trie = build("사랑", "사랑니", "학교", "가");
+    assertEquals(4, trie.size());
+    assertEquals("사랑", trie.get("사랑"));
+    assertEquals("사랑니", trie.get("사랑니"));
+    assertEquals("가", trie.get("가"));
+    assertNull(trie.get("사"));
+    assertNull(trie.get("사랑해"));
+    assertNull(trie.get("없음"));
+    assertNull(trie.get(""));
+    assertEquals("학교", trie.get("우리학교에", 2, 4));
+  }
+
+  @Test
+  public void testLastValueWins() {
+    DoubleArrayTrie<Integer> trie = new DoubleArrayTrie.Builder<Integer>()
+        .add("학교", 1).add("학교", 2).build();
+    assertEquals(1, trie.size());
+    assertEquals(Integer.valueOf(2), trie.get("학교"));
+  }
+
+  @Test
+  public void testEmpty() {
+    DoubleArrayTrie<String> trie = build();
+    assertEquals(0, trie.size());
+    assertNull(trie.get(""));
+    assertNull(trie.get("가"));
+    assertFalse(trie.getPrefixedBy("").hasNext());
+  }
+
+  @Test
+  public void testPrefixedByOrder() {
+    DoubleArrayTrie<String> trie = build("학교", "가나다", "가", "가나", "나", "가다", "가나라");
+    assertEquals(Arrays.asList("가", "가나", "가나다", "가나라", "가다"), list(trie.getPrefixedBy("가")));
+    assertEquals(Arrays.asList("가나", "가나다", "가나라"), list(trie.getPrefixedBy("가나")));
+    assertEquals(Arrays.asList("가", "가나", "가나다", "가나라", "가다", "나", "학교"), list(trie.getPrefixedBy("")));
+    assertEquals(Arrays.asList(), list(trie.getPrefixedBy("다")));
+  }
+
+  @Test
+  public void testCommonPrefixSearch() {
+    DoubleArrayTrie<String> trie = build("가", "가나", "가나다라", "나다");
+    final List<String> found = new ArrayList<String>();
+    trie.commonPrefixSearch("나가나다라마", 1, 6, new PrefixMatchHandler<String>() {
+      public void match(int end, String value) {
+        found.add(end+":"+value);
+      }
+    });
+    assertEquals(Arrays.asList("2:가", "3:가나", "5:가나다라"), found);
+
+    found.clear();
+    trie.commonPrefixSearch("가나다라", 0, 3, new PrefixMatchHandler<String>() {
+      public void match(int end, String value) {
+        found.add(end+":"+value);
+      }
+    });
+    assertEquals(Arrays.asList("1:가", "2:가나"), found);
+  }
+
+  @Test
+  public void testCommonSuffixSearch() {
+    // the trie of the reversed keys
+    DoubleArrayTrie<String> trie = new DoubleArrayTrie.Builder<String>()
+        .add("다", "다").add("다니습", "습니다").add("다었", "었다").build();
+    String[] found = new String[8];
+    assertEquals(2, trie.commonSuffixSearch("먹었습니다", 0, 5, found));
+    assertEquals(Arrays.asList(null, null, "습니다", null, "다", null, null, null), Arrays.asList(found));
+
+    found = new String[8];
+    assertEquals(2, trie.commonSuffixSearch("먹었다", 0, 3, found));
+    assertEquals("다", found[2]);
+    assertEquals("었다", found[1]);
+    assertNull(found[0]);
+
+    found = new String[8];
+    assertEquals(0, trie.commonSuffixSearch("습니다가", 0, 4, found));
+  }
+
+  @Test
+  public void testCaseFolding() {
+    DoubleArrayTrie<String> trie = build("ABC", "abd", "Kb");
+    assertEquals("abc", DoubleArrayTrie.canonicalCase("ABC"));
+    assertEquals("ABC", trie.get("abc"));
+    assertEquals("ABC", trie.get("AbC"));
+    assertEquals("abd", trie.get("ABD"));
+    assertEquals("Kb", trie.get("kB"));
+    assertEquals(Arrays.asList("ABC", "abd"), list(trie.getPrefixedBy("AB")));
+
+    final List<String> found = new ArrayList<String>();
+    trie.commonPrefixSearch("aBc", 0, 3, new PrefixMatchHandler<String>() {
+      public void match(int end, String value) {
+        found.add(end+":"+value);
+      }
+    });
+    assertEquals(Arrays.asList("3:ABC"), found);
+  }
+
+  @Test
+  public void testRandomAgainstTreeMap() {
+    Random random = new Random(42);
+    String alphabet = "가나다라aAbB";
+    for(int round=0;round<100;round++) {
+      DoubleArrayTrie.Builder<String> builder = new DoubleArrayTrie.Builder<String>();
+      TreeMap<String, String> expected = new TreeMap<String, String>();
+      int n = random.nextInt(50);
+      for(int i=0;i<n;i++) {
+        String key = random(random, alphabet, 1+random.nextInt(5));
+        builder.add(key, key);
+        expected.put(DoubleArrayTrie.canonicalCase(key), key);
+      }
+      DoubleArrayTrie<String> trie = builder.build();
+      assertEquals(expected.size(), trie.size());
+
+      for(int q=0;q<50;q++) {
+        String query = random(random, alphabet, random.nextInt(4));
+        String canonical = DoubleArrayTrie.canonicalCase(query);
+        assertEquals(expected.get(canonical), trie.get(query));
+
+        List<String> prefixed = new ArrayList<String>();
+        for(Map.Entry<String, String> e : expected.tailMap(canonical).entrySet()) {
+          if(!e.getKey().startsWith(canonical)) break;
+          prefixed.add(e.getValue());
+        }
+        assertEquals(prefixed, list(trie.getPrefixedBy(query)));
+      }
+    }
+  }
+
+  private static String random(Random random, String alphabet, int length) {
+    StringBuilder sb = new StringBuilder();
+    for(int i=0;i<length;i++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    return sb.toString();
+  }
+}
@@ -0,0 +1,163 @@
+package org.apache.lucene.analysis.ko.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
+import org.apache.lucene.analysis.ko.morph.MorphAnalyzer;
+import org.apache.lucene.analysis.ko.morph.PatternConstants;
+import org.junit.Test;
+
+public class UtilitiesTest {
+
+  private static AnalysisOutput output(String stem, char pos, int patn) {
+    AnalysisOutput o = new AnalysisOutput(stem, null, null, pos, patn, AnalysisOutput.SCORE_CORRECT);
+    o.setJosa("에서");
+    o.setEomi("다");
+    o.setVsfx("하");
+    o.setXverb("보");
+    o.addElist("기");
+    o.addElist("이");
+    return o;
+  }
+
+  /**
+   * an output of every pattern, with and without the prefinal ending and the noun suffix.
+   */
+  private static List<AnalysisOutput> outputs() {
+    int[] patns = {PatternConstants.PTN_N, PatternConstants.PTN_NJ, PatternConstants.PTN_NSM,
+        PatternConstants.PTN_NSMJ, PatternConstants.PTN_NSMXM, PatternConstants.PTN_NJCM,
+        PatternConstants.PTN_NSMXMJ, PatternConstants.PTN_VM, PatternConstants.PTN_VMJ,
+        PatternConstants.PTN_VMCM, PatternConstants.PTN_VMXM, PatternConstants.PTN_VMXMJ,
+        PatternConstants.PTN_AID, PatternConstants.PTN_ADVJ, PatternConstants.PTN_ZZZ};
+    List<AnalysisOutput> outputs = new ArrayList<AnalysisOutput>();
+    for(int patn : patns) {
+      outputs.add(output("공부", 'N', patn));
+      AnalysisOutput o = output("먹", 'V', patn);
+      o.setPomi("었");
+      outputs.add(o);
+      o = output("학생", 'N', patn);
+      o.setNsfx("들");
+      outputs.add(o);
+    }
+    // a morpheme longer than 127 chars takes two bytes of length
+    char[] stem = new char[300];
+    Arrays.fill(stem, '가');
+    outputs.add(output(new String(stem), 'N', PatternConstants.PTN_NJ));
+    return outputs;
+  }
+
+  private static byte[] encode(AnalysisOutput o) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int size = Utilities.encode(o, out);
+    assertEquals(out.size(), size);
+    return out.toByteArray();
+  }
+
+  private static String decode(byte[] buf, int off, int len) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    Utilities.decode(buf, off, len, sb);
+    return sb.toString();
+  }
+
+  @Test
+  public void testWriteTo() throws Exception {
+    AnalysisOutput o = new AnalysisOutput("학교", "에서", null, 'N', PatternConstants.PTN_NJ, AnalysisOutput.SCORE_CORRECT);
+    assertEquals("학교(N),에서(j)", o.toString());
+
+    o = new AnalysisOutput("먹", null, "다", 'V', PatternConstants.PTN_VM, AnalysisOutput.SCORE_CORRECT);
+    assertEquals("먹(V),다(e)", o.toString());
+    o.setPomi("었");
+    assertEquals("먹(V),었(f),다(e)", o.toString());
+
+    o = new AnalysisOutput("학생", null, null, 'N', PatternConstants.PTN_N, AnalysisOutput.SCORE_CORRECT);
+    o.setNsfx("들");
+    assertEquals("학생(N),들("+PatternConstants.POS_SFX_N+")", o.toString());
+
+    StringBuilder sb = new StringBuilder("> ");
+    Utilities.writeTo(o, sb);
+    assertEquals("> 학생(N),들("+PatternConstants.POS_SFX_N+")", sb.toString());
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    for(AnalysisOutput o : outputs()) {
+      byte[] buf = encode(o);
+      assertEquals(o.toString(), decode(buf, 0, buf.length));
+    }
+  }
+
+  @Test
+  public void testRoundTripAnalyzed() throws Exception {
+    MorphAnalyzer analyzer = new MorphAnalyzer();
+    for(String word : new String[] {"학교에서", "먹었습니다", "공부하기가", "사랑해보았다", "빨리도", "아름다운"}) {
+      for(AnalysisOutput o : analyzer.analyze(word)) {
+        byte[] buf = encode(o);
+        assertEquals(o.toString(), decode(buf, 0, buf.length));
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeAtOffset() throws Exception {
+    List<AnalysisOutput> outputs = outputs();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int[] offsets = new int[outputs.size()+1];
+    for(int i=0;i<outputs.size();i++) {
+      offsets[i] = out.size();
+      Utilities.encode(outputs.get(i), out);
+    }
+    offsets[outputs.size()] = out.size();
+
+    byte[] buf = out.toByteArray();
+    for(int i=0;i<outputs.size();i++) {
+      assertEquals(outputs.get(i).toString(), decode(buf, offsets[i], offsets[i+1]-offsets[i]));
+    }
+  }
+
+  @Test
+  public void testDecodeTruncated() throws Exception {
+    for(AnalysisOutput o : outputs()) {
+      byte[] encoded = encode(o);
+      // the bytes after the end look like a long length, they must not be read
+      byte[] buf = Arrays.copyOf(encoded, encoded.length+8);
+      Arrays.fill(buf, encoded.length, buf.length, (byte)0xFF);
+      for(int len=0;len<encoded.length;len++) {
+        try {
+          decode(buf, 0, len);
+          fail("decoded "+len+" of "+encoded.length+" bytes of "+o);
+        } catch (IllegalArgumentException e) {
+          // expected
+        }
+      }
+    }
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testDecodeOutOfBuffer() throws Exception {
+    byte[] buf = encode(outputs().get(0));
+    decode(buf, 1, buf.length);
+  }
+}